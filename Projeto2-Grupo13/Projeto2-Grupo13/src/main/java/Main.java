@@ -1,35 +1,66 @@
+import aa.ApuramentoIncremental;
 import aa.AutoridadeApuramento;
 import ar.AutoridadeRegisto;
+import ar.ARNioServer;
 import ar.ARServer;
+import ar.ServidorAR;
 import eleitor.Eleitor;
 import shared.CertificadoEleitor;
+import shared.DefinicaoEleicao;
+import shared.RaizAssinada;
+import shared.ReciboVoto;
+import shared.ReservaChaves;
+import sv.EmissorTokensAssinados;
+import sv.MapaTokensGastos;
 import sv.ServidorVotacao;
+import sv.ValidadorTokensAssinados;
+import ue.DiarioVotos;
 import ue.UrnaEletronica;
 
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.security.*;
-import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
     private static final int SSL_PORT = 9090;
     private static final int SERVER_START_DELAY_MS = 1500;
+    private static final int MAX_TOKENS_ASSINADOS = 1000000;
+    private static final long APURAMENTO_TIMEOUT_S = 60;
+    private static final long QUADRO_TIMEOUT_S = 30;
+    private static final int CAPACIDADE_RESERVA_CHAVES = 8;
 
     public static void main(String[] args) {
         try {
+            // O apuramento verificado relê e confere os votos contra a raiz do quadro;
+            // o resultado incremental nunca passaria por essa verificação.
+            if (Boolean.getBoolean("evote.ue.quadro") && Boolean.getBoolean("evote.aa.incremental")) {
+                throw new IllegalArgumentException("evote.aa.incremental não pode ser usado com evote.ue.quadro");
+            }
             configurarSSL();
 
+            // Começa a gerar as chaves dos eleitores enquanto as autoridades arrancam.
+            ReservaChaves reservaChaves = new ReservaChaves(
+                    ReservaChaves.Algoritmo.porNome(System.getProperty("evote.eleitor.chaves", "RSA")),
+                    CAPACIDADE_RESERVA_CHAVES);
+
             KeyPair parChavesAR = gerarParChavesRSA();
-            KeyPair parChavesAA = gerarParChavesRSA();
+            DefinicaoEleicao definicao = DefinicaoEleicao.carregar();
+            KeyPair parChavesAA = definicao.getSuite().gerarParChaves();
 
             AutoridadeRegisto ar = new AutoridadeRegisto(parChavesAR.getPrivate(), parChavesAR.getPublic());
-            ARServer arServer = new ARServer(ar);
-            AutoridadeApuramento aa = new AutoridadeApuramento(parChavesAA.getPrivate(), parChavesAA.getPublic());
-            ServidorVotacao sv = new ServidorVotacao(ar, aa.getChavePublicaAA());
-            UrnaEletronica ue = new UrnaEletronica(sv);
+            ServidorAR arServer = criarServidorAR(ar);
+            AutoridadeApuramento aa = new AutoridadeApuramento(parChavesAA.getPrivate(), parChavesAA.getPublic(),
+                    definicao);
+            ServidorVotacao sv = criarServidorVotacao(ar, aa.getChavePublicaAA());
+            KeyPair parChavesUE = Boolean.getBoolean("evote.ue.quadro") ? gerarParChavesRSA() : null;
+            UrnaEletronica ue = criarUrna(sv, parChavesUE);
 
             iniciarServidorAR(arServer);
 
-            executarFluxoVotacaoCompleto(ar, sv, ue, aa);
+            executarFluxoVotacaoCompleto(ar, sv, ue, aa, parChavesUE, reservaChaves);
 
         } catch (NoSuchAlgorithmException e) {
             System.err.println("❌ Erro de criptografia: " + e.getMessage());
@@ -48,7 +79,37 @@ public class Main {
         return keyGen.generateKeyPair();
     }
 
-    private static void iniciarServidorAR(ARServer server) {
+    private static ServidorAR criarServidorAR(AutoridadeRegisto ar) {
+        if ("nio".equalsIgnoreCase(System.getProperty("evote.ar.transporte"))) {
+            return new ARNioServer(ar);
+        }
+        Integer inatividadeMs = Integer.getInteger("evote.ar.inatividade.ms");
+        return inatividadeMs != null ? new ARServer(ar, inatividadeMs) : new ARServer(ar);
+    }
+
+    private static ServidorVotacao criarServidorVotacao(AutoridadeRegisto ar, PublicKey chavePublicaAA)
+            throws NoSuchAlgorithmException {
+        if ("assinados".equalsIgnoreCase(System.getProperty("evote.sv.tokens"))) {
+            SecretKey chaveTokens = EmissorTokensAssinados.gerarChave();
+            return new ServidorVotacao(ar, chavePublicaAA, new EmissorTokensAssinados(chaveTokens),
+                    new ValidadorTokensAssinados(chaveTokens, new MapaTokensGastos(MAX_TOKENS_ASSINADOS)));
+        }
+        return new ServidorVotacao(ar, chavePublicaAA);
+    }
+
+    private static UrnaEletronica criarUrna(ServidorVotacao sv, KeyPair parChavesUE) throws IOException {
+        String diretoriaDiario = System.getProperty("evote.ue.diario");
+        PrivateKey chaveQuadro = parChavesUE != null ? parChavesUE.getPrivate() : null;
+        if (diretoriaDiario != null) {
+            return new UrnaEletronica(sv.getValidadorTokens(), new DiarioVotos(Paths.get(diretoriaDiario)), chaveQuadro);
+        }
+        if (chaveQuadro != null) {
+            return new UrnaEletronica(sv.getValidadorTokens(), null, chaveQuadro);
+        }
+        return new UrnaEletronica(sv);
+    }
+
+    private static void iniciarServidorAR(ServidorAR server) {
         new Thread(() -> {
             try {
                 System.out.println("🔒 Servidor AR iniciando na porta " + SSL_PORT + "...");
@@ -61,12 +122,16 @@ public class Main {
     }
 
     private static void executarFluxoVotacaoCompleto(AutoridadeRegisto ar, ServidorVotacao sv,
-                                                     UrnaEletronica ue, AutoridadeApuramento aa) {
+                                                     UrnaEletronica ue, AutoridadeApuramento aa,
+                                                     KeyPair parChavesUE, ReservaChaves reservaChaves) {
         try {
             Thread.sleep(SERVER_START_DELAY_MS);
             System.out.println("\n✅ Sistema inicializado. Iniciando processo de votação...");
 
-            Eleitor eleitor = registrarEleitor(ar);
+            ApuramentoIncremental incremental = Boolean.getBoolean("evote.aa.incremental")
+                    ? aa.iniciarApuramentoIncremental(ue.subscrever()) : null;
+
+            Eleitor eleitor = registrarEleitor(ar, reservaChaves);
 
             autenticarEleitor(eleitor, sv);
 
@@ -74,7 +139,11 @@ public class Main {
 
             aguardarEncerramentoManual(ue);
 
-            executarApuramento(ue, aa);
+            if (parChavesUE != null) {
+                executarApuramentoVerificado(eleitor, ue, aa, parChavesUE.getPublic());
+            } else {
+                executarApuramento(ue, aa, incremental);
+            }
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -95,14 +164,14 @@ public class Main {
         scanner.close();
     }
 
-    private static Eleitor registrarEleitor(AutoridadeRegisto ar) throws Exception {
+    private static Eleitor registrarEleitor(AutoridadeRegisto ar, ReservaChaves reservaChaves) throws Exception {
         System.out.println("\n=== FASE 1: REGISTO NA AR ===");
-        Eleitor eleitor = new Eleitor("Eleitor_Teste");
+        Eleitor eleitor = new Eleitor("Eleitor_Teste", reservaChaves);
 
         try {
             CertificadoEleitor certificado = eleitor.registarNaAR();
             System.out.println("📄 Certificado obtido:\n" + certificado.toPemFormat());
-            System.out.println("ℹ️ Eleitores registrados: " + ar.getEleitoresRegistados().size());
+            System.out.println("ℹ️ Eleitores registrados: " + ar.getTotalEleitoresRegistados());
             return eleitor;
         } catch (Exception e) {
             System.err.println("❌ Falha no registro: " + e.getMessage());
@@ -121,19 +190,47 @@ public class Main {
         String candidato = "CandidatoA";
         System.out.println("🗳️ Enviando voto para: " + candidato);
 
-        eleitor.votar(candidato, ue, aa.getChavePublicaAA());
+        DefinicaoEleicao definicao = aa.getDefinicao();
+        eleitor.votar(definicao.indiceDe(candidato), ue, aa.getChavePublicaAA(), definicao);
         System.out.println("✅ Voto registado com sucesso!");
     }
 
-    private static void executarApuramento(UrnaEletronica ue, AutoridadeApuramento aa) {
+    private static void executarApuramento(UrnaEletronica ue, AutoridadeApuramento aa,
+                                           ApuramentoIncremental incremental) {
         try {
             System.out.println("\n=== FASE 4: APURAMENTO ===");
 
-            List<byte[]> votosEncriptados = ue.getVotosEncriptados();
-            System.out.println("📨 Transferindo " + votosEncriptados.size() + " votos para a AA...");
+            if (incremental != null) {
+                System.out.println("📨 A concluir apuramento incremental de " + ue.getTotalVotos() + " votos...");
+                aa.aplicarResultado(incremental.aguardarResultado(APURAMENTO_TIMEOUT_S, TimeUnit.SECONDS));
+            } else {
+                System.out.println("📨 Transferindo " + ue.getTotalVotos() + " votos para a AA...");
+                aa.apurarVotos(ue.iteradorVotos());
+            }
 
-            List<String> votosDesencriptados = aa.desencriptarVotos(votosEncriptados);
-            aa.apurarVotos(votosDesencriptados);
+            System.out.println("\n" + aa.gerarRelatorio());
+        } catch (Exception e) {
+            System.err.println("❌ Erro no processo de apuramento: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void executarApuramentoVerificado(Eleitor eleitor, UrnaEletronica ue, AutoridadeApuramento aa,
+                                                     PublicKey chaveUrna) {
+        try {
+            System.out.println("\n=== FASE 4: APURAMENTO VERIFICADO ===");
+            RaizAssinada raiz = ue.getQuadro().aguardarRaiz(QUADRO_TIMEOUT_S, TimeUnit.SECONDS);
+            System.out.println("🌳 Quadro de votos selado: " + raiz);
+
+            ReciboVoto recibo = eleitor.obterRecibo(ue);
+            System.out.println(eleitor.verificarRecibo(recibo, raiz, chaveUrna)
+                    ? "🧾 Recibo do eleitor verificado (posição " + recibo.getIndice() + ", "
+                    + recibo.getCaminho().size() + " hashes)"
+                    : "❌ Recibo do eleitor inválido");
+
+            System.out.println("📨 Transferindo " + ue.getTotalVotos() + " votos para a AA...");
+            aa.apurarVerificado(ue.iteradorVotos(), raiz, chaveUrna);
+            System.out.println("✅ Votos recebidos coincidem com o quadro assinado");
 
             System.out.println("\n" + aa.gerarRelatorio());
         } catch (Exception e) {
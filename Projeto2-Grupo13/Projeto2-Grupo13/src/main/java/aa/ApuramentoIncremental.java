@@ -0,0 +1,108 @@
+package aa;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ue.FluxoVotos;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ApuramentoIncremental implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ApuramentoIncremental.class);
+
+    private static final int TAMANHO_BLOCO = 256;
+    private static final long ESPERA_MS = 50;
+
+    private final MotorDesencriptacao motor;
+    private final FluxoVotos fluxo;
+    private final ContadorCandidatos contador;
+    private final ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch concluido = new CountDownLatch(1);
+    private final Thread leitor;
+    private volatile boolean cancelado;
+    private volatile long processados;
+    private volatile ResultadoApuramento resultado;
+    private volatile RuntimeException falha;
+
+    ApuramentoIncremental(MotorDesencriptacao motor, FluxoVotos fluxo, ContadorCandidatos contador) {
+        this.motor = motor;
+        this.fluxo = fluxo;
+        this.contador = contador;
+        this.leitor = new Thread(this::consumir, "aa-apuramento-incremental");
+        leitor.setDaemon(true);
+        leitor.start();
+    }
+
+    private void consumir() {
+        List<ByteBuffer> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        int base = 0;
+        try {
+            while (!cancelado && !fluxo.isTerminado()) {
+                ByteBuffer voto = fluxo.proximo(ESPERA_MS, TimeUnit.MILLISECONDS);
+                if (voto != null) {
+                    bloco.add(voto);
+                }
+                if (bloco.size() == TAMANHO_BLOCO || (voto == null && !bloco.isEmpty())) {
+                    motor.apurarBloco(bloco, base, contador, falhas);
+                    base += bloco.size();
+                    processados = base;
+                    bloco.clear();
+                }
+            }
+            if (!cancelado) {
+                List<ResultadoDesencriptacao.FalhaVoto> ordenadas = new ArrayList<>(falhas);
+                ordenadas.sort(Comparator.comparingInt(ResultadoDesencriptacao.FalhaVoto::getIndice));
+                resultado = new ResultadoApuramento(contador.getContagens(), ordenadas, contador.getTotal());
+                logger.info("Apuramento incremental concluído: {} votos, {} falhas", base, ordenadas.size());
+            }
+        } catch (RuntimeException e) {
+            falha = e;
+            logger.error("Apuramento incremental interrompido: {}", e.getMessage(), e);
+        } finally {
+            concluido.countDown();
+        }
+    }
+
+    public ResultadoApuramento aguardarResultado(long timeout, TimeUnit unidade)
+            throws InterruptedException, TimeoutException, ExecutionException {
+        if (!concluido.await(timeout, unidade)) {
+            throw new TimeoutException("Apuramento incremental ainda em curso");
+        }
+        if (falha != null) {
+            throw new ExecutionException("Apuramento incremental falhou", falha);
+        }
+        return getResultado();
+    }
+
+    public ResultadoApuramento getResultado() {
+        ResultadoApuramento r = resultado;
+        if (r == null) {
+            if (falha != null) {
+                throw new IllegalStateException("Apuramento incremental falhou: " + falha.getMessage(), falha);
+            }
+            throw new IllegalStateException("Resultados selados até ao encerramento da votação");
+        }
+        return r;
+    }
+
+    public boolean isConcluido() {
+        return resultado != null;
+    }
+
+    public long getVotosProcessados() {
+        return processados;
+    }
+
+    @Override
+    public void close() {
+        cancelado = true;
+        leitor.interrupt();
+    }
+}
@@ -1,22 +1,41 @@
 package aa;
 
-import shared.PacoteVoto;
 import shared.CryptoUtils;
+import shared.DefinicaoEleicao;
+import shared.RaizAssinada;
+import shared.SuiteCifra;
+import shared.VistaVoto;
 import shared.exceptions.DescriptografiaFalhouException;
+import shared.exceptions.QuadroVotosInvalidoException;
+import ue.FluxoVotos;
 
 import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.security.*;
 import java.util.*;
 
 public class AutoridadeApuramento {
+    private static final int TAMANHO_TAMPAO = 64 * 1024;
+
     private final PrivateKey chavePrivadaAA;
     private final PublicKey chavePublicaAA;
+    private final MotorDesencriptacao motorDesencriptacao;
+    private final DefinicaoEleicao definicao;
     private Map<String, Integer> resultados;
 
     public AutoridadeApuramento(PrivateKey chavePrivadaAA, PublicKey chavePublicaAA) {
+        this(chavePrivadaAA, chavePublicaAA, null);
+    }
+
+    public AutoridadeApuramento(PrivateKey chavePrivadaAA, PublicKey chavePublicaAA, DefinicaoEleicao definicao) {
         this.chavePrivadaAA = chavePrivadaAA;
+        this.definicao = definicao;
         this.chavePublicaAA = chavePublicaAA;
+        this.motorDesencriptacao = new MotorDesencriptacao(chavePrivadaAA,
+                Runtime.getRuntime().availableProcessors(), definicao != null ? definicao.getSuite() : SuiteCifra.RSA);
         this.resultados = new HashMap<>();
     }
 
@@ -24,24 +43,147 @@ public class AutoridadeApuramento {
         List<String> votosDesencriptados = new ArrayList<>();
 
         for (byte[] votoBytes : votosEncriptados) {
-            try {
-                PacoteVoto pacote = PacoteVoto.fromByteArray(votoBytes);
+            votosDesencriptados.add(desencriptar(ByteBuffer.wrap(votoBytes)));
+        }
+
+        return votosDesencriptados;
+    }
+
+    public ResultadoDesencriptacao desencriptarVotosParalelo(List<byte[]> votosEncriptados) {
+        List<ByteBuffer> votos = new ArrayList<>(votosEncriptados.size());
+        for (byte[] votoBytes : votosEncriptados) {
+            votos.add(ByteBuffer.wrap(votoBytes));
+        }
+        return motorDesencriptacao.desencriptar(votos);
+    }
+
+    public Map<String, Integer> apurarVotos(Iterator<ByteBuffer> votosEncriptados) throws DescriptografiaFalhouException {
+        ResultadoApuramento apuramento = apurar(votosEncriptados);
+        if (!apuramento.isCompleto()) {
+            throw new DescriptografiaFalhouException(apuramento.getFalhas().get(0).toString());
+        }
+        return new HashMap<>(resultados);
+    }
 
-                if (!pacote.verificarIntegridade()) {
-                    throw new DescriptografiaFalhouException("Integridade do voto comprometida");
+    public ResultadoApuramento apurar(Iterator<ByteBuffer> votosEncriptados) {
+        ResultadoApuramento apuramento = motorDesencriptacao.apurar(votosEncriptados, novoContador());
+        aplicarResultado(apuramento);
+        return apuramento;
+    }
+
+    // Apura e recalcula a raiz de Merkle dos boletins recebidos; o resultado só é aplicado
+    // se coincidir com a raiz assinada pela urna.
+    public ResultadoApuramento apurarVerificado(Iterator<ByteBuffer> votosEncriptados, RaizAssinada raiz,
+                                                PublicKey chaveUrna) throws QuadroVotosInvalidoException {
+        if (!raiz.verificarAssinatura(chaveUrna)) {
+            throw new QuadroVotosInvalidoException("Assinatura da raiz do quadro de votos inválida");
+        }
+        ResultadoApuramento apuramento = motorDesencriptacao.apurar(votosEncriptados, novoContador(), true);
+        if (apuramento.getTotalContados() + apuramento.getFalhas().size() != raiz.getTamanho()) {
+            throw new QuadroVotosInvalidoException("Quadro com " + raiz.getTamanho() + " votos, recebidos "
+                    + (apuramento.getTotalContados() + apuramento.getFalhas().size()));
+        }
+        if (!MessageDigest.isEqual(apuramento.getRaizMerkle(), raiz.getRaiz())) {
+            throw new QuadroVotosInvalidoException("Raiz de Merkle dos votos recebidos não coincide com a do quadro");
+        }
+        aplicarResultado(apuramento);
+        return apuramento;
+    }
+
+    public boolean verificarQuadro(Iterator<ByteBuffer> votosEncriptados, RaizAssinada raiz, PublicKey chaveUrna) {
+        return raiz.verificarAssinatura(chaveUrna)
+                && MessageDigest.isEqual(motorDesencriptacao.calcularRaizMerkle(votosEncriptados), raiz.getRaiz());
+    }
+
+    public ApuramentoIncremental iniciarApuramentoIncremental(FluxoVotos fluxo) {
+        return new ApuramentoIncremental(motorDesencriptacao, fluxo, novoContador());
+    }
+
+    public Map<String, Integer> aplicarResultado(ResultadoApuramento apuramento) {
+        resultados = new HashMap<>();
+        apuramento.getContagens().forEach((candidato, total) -> resultados.put(candidato, total.intValue()));
+        return new HashMap<>(resultados);
+    }
+
+    public Map<String, Integer> apurarVotos(ReadableByteChannel canal) throws DescriptografiaFalhouException, IOException {
+        ContadorCandidatos contador = novoContador();
+        ByteBuffer tampao = ByteBuffer.allocate(TAMANHO_TAMPAO);
+        tampao.limit(0);
+        while (true) {
+            if (!preencher(canal, tampao, 4)) {
+                if (tampao.hasRemaining()) {
+                    throw new EOFException("Exportação de votos truncada");
                 }
+                break;
+            }
+            int tamanho = tampao.getInt();
+            if (tamanho < 0) {
+                throw new IOException("Tamanho de voto inválido: " + tamanho);
+            }
+            if (tamanho > tampao.capacity()) {
+                ByteBuffer maior = ByteBuffer.allocate(tamanho);
+                maior.put(tampao);
+                maior.flip();
+                tampao = maior;
+            }
+            if (!preencher(canal, tampao, tamanho)) {
+                throw new EOFException("Exportação de votos truncada");
+            }
+            ByteBuffer voto = tampao.slice();
+            voto.limit(tamanho);
+            motorDesencriptacao.apurarVoto(voto, contador);
+            tampao.position(tampao.position() + tamanho);
+        }
+        resultados = new HashMap<>();
+        contador.getContagens().forEach((candidato, total) -> resultados.put(candidato, total.intValue()));
+        return new HashMap<>(resultados);
+    }
+
+    private static boolean preencher(ReadableByteChannel canal, ByteBuffer tampao, int necessarios) throws IOException {
+        if (tampao.remaining() >= necessarios) {
+            return true;
+        }
+        tampao.compact();
+        while (tampao.position() < necessarios) {
+            if (canal.read(tampao) < 0) {
+                tampao.flip();
+                return false;
+            }
+        }
+        tampao.flip();
+        return true;
+    }
 
-                byte[] chaveAESBytes = CryptoUtils.decryptRSA(pacote.getChaveEncriptada(), chavePrivadaAA);
-                SecretKey chaveAES = new SecretKeySpec(chaveAESBytes, "AES");
+    private String desencriptar(ByteBuffer votoBytes) throws DescriptografiaFalhouException {
+        try {
+            VistaVoto voto = new VistaVoto().envolver(votoBytes);
 
-                String voto = new String(CryptoUtils.decryptAES(pacote.getVotoEncriptado(), chaveAES));
-                votosDesencriptados.add(voto);
-            } catch (Exception e) {
-                throw new DescriptografiaFalhouException("Falha ao processar voto: " + e.getMessage());
+            if (!voto.verificarIntegridade()) {
+                throw new DescriptografiaFalhouException("Integridade do voto comprometida");
             }
+
+            SecretKey chaveAES = motorDesencriptacao.getSuite().desencapsular(voto.copiarChaveEncriptada(), chavePrivadaAA);
+            byte[] textoClaro = new byte[CryptoUtils.aesPlaintextSize(voto.getTamanhoVotoEncriptado())];
+            int tamanho = CryptoUtils.decryptAES(voto.votoEncriptado(), chaveAES, ByteBuffer.wrap(textoClaro));
+            return nomeCandidato(textoClaro, tamanho);
+        } catch (Exception e) {
+            throw new DescriptografiaFalhouException("Falha ao processar voto: " + e.getMessage());
         }
+    }
 
-        return votosDesencriptados;
+    // Boletins compactos (DefinicaoEleicao.codificarVoto) só se traduzem com a definição da eleição.
+    private String nomeCandidato(byte[] textoClaro, int tamanho) throws DescriptografiaFalhouException {
+        int escolha = DefinicaoEleicao.descodificarVoto(textoClaro, 0, tamanho);
+        if (escolha == DefinicaoEleicao.NAO_COMPACTO) {
+            return new String(textoClaro, 0, tamanho);
+        }
+        if (definicao == null) {
+            throw new DescriptografiaFalhouException("Voto compacto sem definição da eleição");
+        }
+        if (!definicao.isEscolhaValida(escolha)) {
+            throw new DescriptografiaFalhouException("Escolha inválida: " + escolha);
+        }
+        return definicao.getCandidato(escolha);
     }
 
     public Map<String, Integer> apurarVotos(List<String> votos) {
@@ -69,4 +211,20 @@ public class AutoridadeApuramento {
     public PublicKey getChavePublicaAA() {
         return chavePublicaAA;
     }
+
+    private ContadorCandidatos novoContador() {
+        return new ContadorCandidatos(definicao);
+    }
+
+    public DefinicaoEleicao getDefinicao() {
+        return definicao;
+    }
+
+    public MotorDesencriptacao getMotorDesencriptacao() {
+        return motorDesencriptacao;
+    }
+
+    public void encerrar() {
+        motorDesencriptacao.close();
+    }
 }
\ No newline at end of file
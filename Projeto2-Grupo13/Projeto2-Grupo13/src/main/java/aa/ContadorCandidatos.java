@@ -0,0 +1,148 @@
+package aa;
+
+import shared.DefinicaoEleicao;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class ContadorCandidatos {
+    private static final int MAX_CACHE_LOCAL = 64;
+
+    private final DefinicaoEleicao definicao;
+    private final Map<String, Integer> identificadores = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ContagemLocal> locais = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ContagemLocal> contagens = ThreadLocal.withInitial(this::novaContagemLocal);
+    private volatile String[] nomes = new String[0];
+
+    public ContadorCandidatos() {
+        this(null);
+    }
+
+    public ContadorCandidatos(DefinicaoEleicao definicao) {
+        this.definicao = definicao;
+        if (definicao != null) {
+            for (String candidato : definicao.getCandidatos()) {
+                registar(candidato);
+            }
+        }
+    }
+
+    public int identificar(byte[] dados, int inicio, int tamanho) {
+        if (definicao != null) {
+            int escolha = DefinicaoEleicao.descodificarVoto(dados, inicio, tamanho);
+            if (escolha != DefinicaoEleicao.NAO_COMPACTO) {
+                return definicao.isEscolhaValida(escolha) ? escolha : -1;
+            }
+        }
+        ContagemLocal local = contagens.get();
+        int id = local.procurar(dados, inicio, tamanho);
+        if (id < 0) {
+            String nome = new String(dados, inicio, tamanho);
+            if (definicao != null) {
+                id = definicao.indiceDe(nome);
+                if (id < 0) {
+                    return -1;
+                }
+            } else {
+                id = registar(nome);
+            }
+            local.guardar(dados, inicio, tamanho, id);
+        }
+        return id;
+    }
+
+    public void contar(int id) {
+        contagens.get().incrementar(id);
+    }
+
+    public Map<String, Long> getContagens() {
+        String[] n = nomes;
+        long[] totais = new long[n.length];
+        for (ContagemLocal local : locais) {
+            long[] parcial = local.contagens;
+            for (int i = 0; i < parcial.length && i < totais.length; i++) {
+                totais[i] += parcial[i];
+            }
+        }
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < n.length; i++) {
+            resultado.put(n[i], totais[i]);
+        }
+        return resultado;
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (ContagemLocal local : locais) {
+            for (long parcial : local.contagens) {
+                total += parcial;
+            }
+        }
+        return total;
+    }
+
+    private ContagemLocal novaContagemLocal() {
+        ContagemLocal local = new ContagemLocal(nomes.length);
+        locais.add(local);
+        return local;
+    }
+
+    private int registar(String nome) {
+        Integer existente = identificadores.get(nome);
+        if (existente != null) {
+            return existente;
+        }
+        synchronized (this) {
+            existente = identificadores.get(nome);
+            if (existente != null) {
+                return existente;
+            }
+            int id = nomes.length;
+            String[] novosNomes = Arrays.copyOf(nomes, id + 1);
+            novosNomes[id] = nome;
+            nomes = novosNomes;
+            identificadores.put(nome, id);
+            return id;
+        }
+    }
+
+    // Cada thread conta no seu próprio long[]; as parcelas só são somadas
+    // depois de as tarefas terminarem (join do ForkJoin), sem contenção.
+    private static final class ContagemLocal {
+        private final byte[][] textos = new byte[MAX_CACHE_LOCAL][];
+        private final int[] ids = new int[MAX_CACHE_LOCAL];
+        private int tamanho;
+        private long[] contagens;
+
+        ContagemLocal(int candidatos) {
+            this.contagens = new long[Math.max(candidatos, 4)];
+        }
+
+        void incrementar(int id) {
+            if (id >= contagens.length) {
+                contagens = Arrays.copyOf(contagens, Math.max(id + 1, contagens.length * 2));
+            }
+            contagens[id]++;
+        }
+
+        int procurar(byte[] dados, int inicio, int comprimento) {
+            for (int i = 0; i < tamanho; i++) {
+                byte[] texto = textos[i];
+                if (Arrays.equals(texto, 0, texto.length, dados, inicio, inicio + comprimento)) {
+                    return ids[i];
+                }
+            }
+            return -1;
+        }
+
+        void guardar(byte[] dados, int inicio, int comprimento, int id) {
+            if (tamanho < MAX_CACHE_LOCAL) {
+                textos[tamanho] = Arrays.copyOfRange(dados, inicio, inicio + comprimento);
+                ids[tamanho++] = id;
+            }
+        }
+    }
+}
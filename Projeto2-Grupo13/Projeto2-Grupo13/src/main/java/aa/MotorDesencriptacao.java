@@ -0,0 +1,316 @@
+package aa;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import shared.ArvoreMerkle;
+import shared.CryptoUtils;
+import shared.SuiteCifra;
+import shared.VistaVoto;
+import shared.exceptions.DescriptografiaFalhouException;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+public class MotorDesencriptacao implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(MotorDesencriptacao.class);
+
+    private static final int LIMIAR_DIVISAO = 8;
+    private static final int TAMANHO_BLOCO = 1024;
+    private static final int LIMIAR_MERKLE = 64;
+
+    private final PrivateKey chavePrivada;
+    private final SuiteCifra suite;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Cifras> cifras = ThreadLocal.withInitial(Cifras::new);
+
+    public MotorDesencriptacao(PrivateKey chavePrivada) {
+        this(chavePrivada, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MotorDesencriptacao(PrivateKey chavePrivada, int paralelismo) {
+        this(chavePrivada, paralelismo, SuiteCifra.RSA);
+    }
+
+    public MotorDesencriptacao(PrivateKey chavePrivada, int paralelismo, SuiteCifra suite) {
+        this.chavePrivada = chavePrivada;
+        this.suite = suite;
+        this.pool = new ForkJoinPool(paralelismo);
+        logger.info("Motor de desencriptação iniciado com paralelismo {} (suite {})", paralelismo, suite);
+    }
+
+    public ResultadoDesencriptacao desencriptar(List<ByteBuffer> votos) {
+        String[] resultado = new String[votos.size()];
+        ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas = new ConcurrentLinkedQueue<>();
+        pool.invoke(new Tarefa(votos, resultado, falhas, 0, votos.size()));
+
+        List<ResultadoDesencriptacao.FalhaVoto> ordenadas = new ArrayList<>(falhas);
+        ordenadas.sort(Comparator.comparingInt(ResultadoDesencriptacao.FalhaVoto::getIndice));
+        return new ResultadoDesencriptacao(Arrays.asList(resultado), ordenadas);
+    }
+
+    public ResultadoApuramento apurar(Iterator<ByteBuffer> votos) {
+        return apurar(votos, new ContadorCandidatos());
+    }
+
+    public ResultadoApuramento apurar(Iterator<ByteBuffer> votos, ContadorCandidatos contador) {
+        return apurar(votos, contador, false);
+    }
+
+    // Com calcularRaiz, cada bloco (uma subárvore alinhada de TAMANHO_BLOCO folhas) é
+    // resumido em paralelo com o apuramento. O resumo individual de cada voto deixa de
+    // ser verificado: qualquer alteração muda a raiz, que o chamador compara.
+    public ResultadoApuramento apurar(Iterator<ByteBuffer> votos, ContadorCandidatos contador, boolean calcularRaiz) {
+        ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas = new ConcurrentLinkedQueue<>();
+        List<ByteBuffer> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        List<byte[]> raizesBlocos = new ArrayList<>();
+        int base = 0;
+        while (votos.hasNext()) {
+            bloco.add(votos.next());
+            if (bloco.size() == TAMANHO_BLOCO || !votos.hasNext()) {
+                if (calcularRaiz) {
+                    ForkJoinTask<byte[]> raizBloco = pool.submit(new TarefaMerkle(bloco, 0, bloco.size()));
+                    apurarBloco(bloco, base, contador, falhas, false);
+                    raizesBlocos.add(raizBloco.join());
+                } else {
+                    apurarBloco(bloco, base, contador, falhas);
+                }
+                base += bloco.size();
+                bloco.clear();
+            }
+        }
+
+        List<ResultadoDesencriptacao.FalhaVoto> ordenadas = new ArrayList<>(falhas);
+        ordenadas.sort(Comparator.comparingInt(ResultadoDesencriptacao.FalhaVoto::getIndice));
+        return new ResultadoApuramento(contador.getContagens(), ordenadas, contador.getTotal(),
+                calcularRaiz ? combinarRaizes(raizesBlocos) : null);
+    }
+
+    public byte[] calcularRaizMerkle(Iterator<ByteBuffer> votos) {
+        List<ByteBuffer> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        List<byte[]> raizesBlocos = new ArrayList<>();
+        while (votos.hasNext()) {
+            bloco.add(votos.next());
+            if (bloco.size() == TAMANHO_BLOCO || !votos.hasNext()) {
+                raizesBlocos.add(pool.invoke(new TarefaMerkle(bloco, 0, bloco.size())));
+                bloco.clear();
+            }
+        }
+        return combinarRaizes(raizesBlocos);
+    }
+
+    private static byte[] combinarRaizes(List<byte[]> raizesBlocos) {
+        try {
+            return ArvoreMerkle.raiz(raizesBlocos);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void apurarBloco(List<ByteBuffer> bloco, int base, ContadorCandidatos contador,
+                     ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas) {
+        apurarBloco(bloco, base, contador, falhas, true);
+    }
+
+    private void apurarBloco(List<ByteBuffer> bloco, int base, ContadorCandidatos contador,
+                             ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas, boolean verificarResumo) {
+        pool.invoke(new TarefaApuramento(bloco, base, contador, falhas, verificarResumo, 0, bloco.size()));
+    }
+
+    public String desencriptarVoto(ByteBuffer votoBytes) throws DescriptografiaFalhouException {
+        Cifras c = cifras.get();
+        int tamanho = desencriptarPara(votoBytes, c, true);
+        String voto = new String(c.textoClaro, 0, tamanho);
+        Arrays.fill(c.textoClaro, 0, tamanho, (byte) 0);
+        return voto;
+    }
+
+    void apurarVoto(ByteBuffer votoBytes, ContadorCandidatos contador) throws DescriptografiaFalhouException {
+        apurarVoto(votoBytes, contador, true);
+    }
+
+    private void apurarVoto(ByteBuffer votoBytes, ContadorCandidatos contador, boolean verificarResumo)
+            throws DescriptografiaFalhouException {
+        Cifras c = cifras.get();
+        int tamanho = desencriptarPara(votoBytes, c, verificarResumo);
+        int id = contador.identificar(c.textoClaro, 0, tamanho);
+        Arrays.fill(c.textoClaro, 0, tamanho, (byte) 0);
+        if (id < 0) {
+            throw new DescriptografiaFalhouException("Escolha fora da definição da eleição");
+        }
+        contador.contar(id);
+    }
+
+    private int desencriptarPara(ByteBuffer votoBytes, Cifras c, boolean verificarResumo)
+            throws DescriptografiaFalhouException {
+        try {
+            VistaVoto voto = c.vista.envolver(votoBytes);
+
+            if (verificarResumo && !voto.verificarIntegridade()) {
+                throw new DescriptografiaFalhouException("Integridade do voto comprometida");
+            }
+
+            SecretKey chaveAES = suite.desencapsular(voto.copiarChaveEncriptada(), chavePrivada);
+            int necessario = CryptoUtils.aesPlaintextSize(voto.getTamanhoVotoEncriptado());
+            if (c.textoClaro.length < necessario) {
+                c.textoClaro = new byte[necessario];
+                c.saida = ByteBuffer.wrap(c.textoClaro);
+            }
+            c.saida.clear();
+            return CryptoUtils.decryptAES(voto.votoEncriptado(), chaveAES, c.saida);
+        } catch (DescriptografiaFalhouException e) {
+            throw e;
+        } catch (Exception e) {
+            String motivo = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            throw new DescriptografiaFalhouException("Falha ao processar voto: " + motivo);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getParalelismo() {
+        return pool.getParallelism();
+    }
+
+    public SuiteCifra getSuite() {
+        return suite;
+    }
+
+    private static final class Cifras {
+        final VistaVoto vista = new VistaVoto();
+        byte[] textoClaro = new byte[256];
+        ByteBuffer saida = ByteBuffer.wrap(textoClaro);
+    }
+
+    private final class Tarefa extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ByteBuffer> votos;
+        private final String[] resultado;
+        private final ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas;
+        private final int inicio;
+        private final int fim;
+
+        Tarefa(List<ByteBuffer> votos, String[] resultado,
+               ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas, int inicio, int fim) {
+            this.votos = votos;
+            this.resultado = resultado;
+            this.falhas = falhas;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= LIMIAR_DIVISAO) {
+                for (int i = inicio; i < fim; i++) {
+                    try {
+                        resultado[i] = desencriptarVoto(votos.get(i));
+                    } catch (DescriptografiaFalhouException | RuntimeException e) {
+                        falhas.add(new ResultadoDesencriptacao.FalhaVoto(i, e.getMessage()));
+                    }
+                }
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Tarefa(votos, resultado, falhas, inicio, meio),
+                    new Tarefa(votos, resultado, falhas, meio, fim));
+        }
+    }
+
+    private final class TarefaApuramento extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ByteBuffer> votos;
+        private final int base;
+        private final ContadorCandidatos contador;
+        private final ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas;
+        private final boolean verificarResumo;
+        private final int inicio;
+        private final int fim;
+
+        TarefaApuramento(List<ByteBuffer> votos, int base, ContadorCandidatos contador,
+                         ConcurrentLinkedQueue<ResultadoDesencriptacao.FalhaVoto> falhas, boolean verificarResumo,
+                         int inicio, int fim) {
+            this.votos = votos;
+            this.base = base;
+            this.contador = contador;
+            this.falhas = falhas;
+            this.verificarResumo = verificarResumo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= LIMIAR_DIVISAO) {
+                for (int i = inicio; i < fim; i++) {
+                    try {
+                        apurarVoto(votos.get(i), contador, verificarResumo);
+                    } catch (DescriptografiaFalhouException | RuntimeException e) {
+                        falhas.add(new ResultadoDesencriptacao.FalhaVoto(base + i, e.getMessage()));
+                    }
+                }
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new TarefaApuramento(votos, base, contador, falhas, verificarResumo, inicio, meio),
+                    new TarefaApuramento(votos, base, contador, falhas, verificarResumo, meio, fim));
+        }
+    }
+
+    private static final class TarefaMerkle extends RecursiveTask<byte[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ByteBuffer> votos;
+        private final int inicio;
+        private final int fim;
+
+        TarefaMerkle(List<ByteBuffer> votos, int inicio, int fim) {
+            this.votos = votos;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected byte[] compute() {
+            try {
+                int n = fim - inicio;
+                if (n <= LIMIAR_MERKLE) {
+                    List<byte[]> folhas = new ArrayList<>(n);
+                    for (int i = inicio; i < fim; i++) {
+                        folhas.add(ArvoreMerkle.hashFolha(votos.get(i)));
+                    }
+                    return ArvoreMerkle.raiz(folhas);
+                }
+                int k = Integer.highestOneBit(n - 1);
+                TarefaMerkle esquerda = new TarefaMerkle(votos, inicio, inicio + k);
+                esquerda.fork();
+                byte[] direita = new TarefaMerkle(votos, inicio + k, fim).compute();
+                return ArvoreMerkle.hashNo(esquerda.join(), direita);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
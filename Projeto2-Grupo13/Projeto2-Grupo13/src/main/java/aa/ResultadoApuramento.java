@@ -0,0 +1,45 @@
+package aa;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ResultadoApuramento {
+    private final Map<String, Long> contagens;
+    private final List<ResultadoDesencriptacao.FalhaVoto> falhas;
+    private final long totalContados;
+    private final byte[] raizMerkle;
+
+    ResultadoApuramento(Map<String, Long> contagens, List<ResultadoDesencriptacao.FalhaVoto> falhas,
+                        long totalContados) {
+        this(contagens, falhas, totalContados, null);
+    }
+
+    ResultadoApuramento(Map<String, Long> contagens, List<ResultadoDesencriptacao.FalhaVoto> falhas,
+                        long totalContados, byte[] raizMerkle) {
+        this.contagens = Collections.unmodifiableMap(contagens);
+        this.falhas = Collections.unmodifiableList(falhas);
+        this.totalContados = totalContados;
+        this.raizMerkle = raizMerkle;
+    }
+
+    public Map<String, Long> getContagens() {
+        return contagens;
+    }
+
+    public List<ResultadoDesencriptacao.FalhaVoto> getFalhas() {
+        return falhas;
+    }
+
+    public long getTotalContados() {
+        return totalContados;
+    }
+
+    public byte[] getRaizMerkle() {
+        return raizMerkle != null ? raizMerkle.clone() : null;
+    }
+
+    public boolean isCompleto() {
+        return falhas.isEmpty();
+    }
+}
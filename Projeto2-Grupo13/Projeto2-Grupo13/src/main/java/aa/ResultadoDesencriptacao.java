@@ -0,0 +1,49 @@
+package aa;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ResultadoDesencriptacao {
+    private final List<String> votos;
+    private final List<FalhaVoto> falhas;
+
+    ResultadoDesencriptacao(List<String> votos, List<FalhaVoto> falhas) {
+        this.votos = Collections.unmodifiableList(votos);
+        this.falhas = Collections.unmodifiableList(falhas);
+    }
+
+    public List<String> getVotos() {
+        return votos;
+    }
+
+    public List<FalhaVoto> getFalhas() {
+        return falhas;
+    }
+
+    public boolean isCompleto() {
+        return falhas.isEmpty();
+    }
+
+    public static class FalhaVoto {
+        private final int indice;
+        private final String motivo;
+
+        FalhaVoto(int indice, String motivo) {
+            this.indice = indice;
+            this.motivo = motivo;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "Voto #" + indice + ": " + motivo;
+        }
+    }
+}
@@ -2,41 +2,57 @@ package ar;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import shared.CertificadoEleitor;
-import shared.NetworkUtils;
+import shared.CanalMensagens;
 import javax.net.ssl.SSLSocket;
+import java.io.EOFException;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 
 
-public class ARClientHandler extends Thread {
+public class ARClientHandler implements Runnable {
     private static final Logger logger = LogManager.getLogger(ARClientHandler.class);
-    private static final Logger securityLogger = LogManager.getLogger("SecurityLogger");
+
+    static final int TEMPO_INATIVIDADE_MS = 120000;
 
     private final SSLSocket socket;
-    private final AutoridadeRegisto ar;
+    private final ProcessadorPedidos processador;
+    private final int tempoInatividadeMs;
 
     public ARClientHandler(SSLSocket socket, AutoridadeRegisto ar) {
+        this(socket, new ProcessadorPedidos(ar), TEMPO_INATIVIDADE_MS);
+    }
+
+    ARClientHandler(SSLSocket socket, ProcessadorPedidos processador, int tempoInatividadeMs) {
         this.socket = socket;
-        this.ar = ar;
+        this.processador = processador;
+        this.tempoInatividadeMs = tempoInatividadeMs;
     }
 
     @Override
     public void run() {
+        int pedidos = 0;
         try {
             logger.debug("Iniciando handler para cliente: {}",
                     socket.getInetAddress().getHostAddress());
+            socket.setSoTimeout(tempoInatividadeMs);
+            CanalMensagens canal = CanalMensagens.servidor(socket);
+            logger.debug("Formato negociado: {}", canal.getFormato());
 
-            CertificadoEleitor certificado = (CertificadoEleitor) NetworkUtils.receiveObject(socket);
-            logger.info("Processando registro para: {}", certificado.getIdentificacao());
-
-            ar.registarEleitor(certificado);
-            NetworkUtils.sendObject(socket, certificado);
-
-            securityLogger.info("CERTIFICATE_ISSUED: {}", certificado.getIdentificacao());
-            logger.info("Registro concluído para: {}", certificado.getIdentificacao());
+            while (!socket.isClosed()) {
+                Object pedido;
+                try {
+                    pedido = canal.receber();
+                } catch (EOFException | SocketTimeoutException e) {
+                    break;
+                }
+                Object resposta = processador.processar(pedido);
+                canal.enviar(resposta);
+                pedidos++;
+            }
         } catch (Exception e) {
             logger.error("Erro no handler do cliente: {}", e.getMessage(), e);
         } finally {
+            logger.debug("Conexão encerrada após {} pedidos", pedidos);
             try {
                 if (!socket.isClosed()) {
                     socket.close();
@@ -46,4 +62,4 @@ public class ARClientHandler extends Thread {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,482 @@
+package ar;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import shared.CanalMensagens;
+import shared.CodecBinario;
+import shared.NetworkUtils;
+import shared.SSLUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ARNioServer implements ServidorAR {
+    private static final Logger logger = LogManager.getLogger(ARNioServer.class);
+    private static final Logger securityLogger = LogManager.getLogger("SecurityLogger");
+
+    private static final int PORTA = 9090;
+    private static final int THREADS_IO = 2;
+    private static final int BACKLOG = 4096;
+    private static final int CAPACIDADE_FILA_TRABALHO = 8192;
+    private static final int TAMANHO_MAXIMO_PEDIDO = CodecBinario.TAMANHO_MAXIMO_TRAMA;
+    private static final ByteBuffer VAZIO = ByteBuffer.allocate(0);
+
+    private final ProcessadorPedidos processador;
+    private final int porta;
+    private final int threadsIO;
+    private final ExecutorService trabalhadores;
+    private final AtomicInteger ligacoesAbertas = new AtomicInteger();
+    private ReactorIO[] reactors;
+    private volatile ServerSocketChannel canalServidor;
+
+    public ARNioServer(AutoridadeRegisto ar) {
+        this(ar, PORTA, THREADS_IO, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ARNioServer(AutoridadeRegisto ar, int porta, int threadsIO, int threadsTrabalho) {
+        this.processador = new ProcessadorPedidos(ar);
+        this.porta = porta;
+        this.threadsIO = threadsIO;
+        this.trabalhadores = new ThreadPoolExecutor(threadsTrabalho, threadsTrabalho,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CAPACIDADE_FILA_TRABALHO),
+                new ExecutorHandlers.FabricaThreads("ar-nio-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void start() {
+        try {
+            SSLContext contexto = SSLUtils.obterContextoSSL();
+
+            reactors = new ReactorIO[threadsIO];
+            for (int i = 0; i < threadsIO; i++) {
+                reactors[i] = new ReactorIO(contexto);
+                Thread t = new Thread(reactors[i], "ar-nio-io-" + i);
+                t.setDaemon(true);
+                t.start();
+            }
+
+            canalServidor = ServerSocketChannel.open();
+            canalServidor.bind(new InetSocketAddress(porta), BACKLOG);
+
+            logger.info("🔒 Servidor AR (NIO) iniciado na porta {} com {} threads de I/O", porta, threadsIO);
+            securityLogger.info("AR_SERVER_STARTED");
+
+            int proximo = 0;
+            while (canalServidor.isOpen()) {
+                try {
+                    SocketChannel canal = canalServidor.accept();
+                    canal.configureBlocking(false);
+                    canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    reactors[proximo].registar(canal);
+                    proximo = (proximo + 1) % reactors.length;
+                } catch (ClosedChannelException e) {
+                    break;
+                } catch (IOException e) {
+                    if (canalServidor.isOpen()) {
+                        logger.error("Erro ao aceitar conexão: {}", e.getMessage());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.fatal("Erro crítico no servidor AR: {}", e.getMessage(), e);
+            System.exit(1);
+        } finally {
+            stop();
+        }
+    }
+
+    @Override
+    public void stop() {
+        try {
+            if (canalServidor != null && canalServidor.isOpen()) {
+                canalServidor.close();
+                for (ReactorIO reactor : reactors) {
+                    reactor.encerrar();
+                }
+                trabalhadores.shutdown();
+                logger.info("Servidor AR encerrado com sucesso");
+            }
+        } catch (IOException e) {
+            logger.error("Erro ao encerrar servidor: {}", e.getMessage());
+        }
+    }
+
+    public int getLigacoesAbertas() {
+        return ligacoesAbertas.get();
+    }
+
+    private void submeter(Ligacao ligacao, Object pedido) {
+        try {
+            trabalhadores.execute(() -> {
+                try {
+                    Object resultado = processador.processar(pedido);
+                    byte[] resposta = ligacao.formato == CanalMensagens.Formato.BINARIO
+                            ? CodecBinario.codificarTrama(resultado)
+                            : NetworkUtils.serializar(resultado);
+                    ligacao.reactor.executar(() -> ligacao.reactor.enviar(ligacao, resposta));
+                } catch (Exception e) {
+                    logger.error("Erro no handler do cliente: {}", e.getMessage(), e);
+                    ligacao.reactor.executar(() -> ligacao.reactor.fechar(ligacao));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Servidor AR saturado, pedido rejeitado");
+            ligacao.reactor.fechar(ligacao);
+        }
+    }
+
+    private final class ReactorIO implements Runnable {
+        private final SSLContext contexto;
+        private final Selector selector;
+        private final Queue<Runnable> tarefas = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer entradaRede;
+        private final ByteBuffer entradaAplicacao;
+        private final int tamanhoPacote;
+        private volatile boolean ativo = true;
+
+        ReactorIO(SSLContext contexto) throws IOException {
+            this.contexto = contexto;
+            this.selector = Selector.open();
+            SSLSession sessao = contexto.createSSLEngine().getSession();
+            this.tamanhoPacote = sessao.getPacketBufferSize();
+            this.entradaRede = ByteBuffer.allocateDirect(tamanhoPacote * 2);
+            this.entradaAplicacao = ByteBuffer.allocate(sessao.getApplicationBufferSize());
+        }
+
+        void registar(SocketChannel canal) {
+            executar(() -> {
+                try {
+                    SSLEngine engine = contexto.createSSLEngine();
+                    engine.setUseClientMode(false);
+                    engine.beginHandshake();
+                    Ligacao ligacao = new Ligacao(this, canal, engine);
+                    ligacao.chave = canal.register(selector, SelectionKey.OP_READ, ligacao);
+                    ligacoesAbertas.incrementAndGet();
+                } catch (IOException e) {
+                    logger.warn("Erro ao registar conexão: {}", e.getMessage());
+                    fecharSilenciosamente(canal);
+                }
+            });
+        }
+
+        void executar(Runnable tarefa) {
+            tarefas.add(tarefa);
+            selector.wakeup();
+        }
+
+        void encerrar() {
+            ativo = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (ativo) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    logger.error("Erro no selector: {}", e.getMessage());
+                    break;
+                }
+
+                Runnable tarefa;
+                while ((tarefa = tarefas.poll()) != null) {
+                    tarefa.run();
+                }
+
+                Iterator<SelectionKey> chaves = selector.selectedKeys().iterator();
+                while (chaves.hasNext()) {
+                    SelectionKey chave = chaves.next();
+                    chaves.remove();
+                    Ligacao ligacao = (Ligacao) chave.attachment();
+                    try {
+                        if (chave.isValid() && chave.isWritable()) {
+                            despejar(ligacao);
+                        }
+                        if (chave.isValid() && chave.isReadable()) {
+                            ler(ligacao);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        logger.debug("Conexão terminada: {}", e.getMessage());
+                        fechar(ligacao);
+                    }
+                }
+            }
+
+            for (SelectionKey chave : selector.keys()) {
+                fechar((Ligacao) chave.attachment());
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.warn("Erro ao fechar selector: {}", e.getMessage());
+            }
+        }
+
+        private void ler(Ligacao ligacao) throws IOException {
+            ByteBuffer entrada = entradaRede;
+            entrada.clear();
+            if (ligacao.sobraRede != null) {
+                entrada.put(ligacao.sobraRede);
+                ligacao.sobraRede = null;
+            }
+            int lidos = ligacao.canal.read(entrada);
+            entrada.flip();
+
+            boolean aberta = desencriptar(ligacao, entrada);
+            if (entrada.hasRemaining()) {
+                ligacao.sobraRede = new byte[entrada.remaining()];
+                entrada.get(ligacao.sobraRede);
+            }
+
+            if (lidos < 0 || !aberta) {
+                fechar(ligacao);
+                return;
+            }
+            descodificarPedidos(ligacao);
+            despejar(ligacao);
+        }
+
+        private boolean desencriptar(Ligacao ligacao, ByteBuffer entrada) throws IOException {
+            SSLEngine engine = ligacao.engine;
+            while (true) {
+                SSLEngineResult.HandshakeStatus estado = engine.getHandshakeStatus();
+                if (estado == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                    Runnable tarefa;
+                    while ((tarefa = engine.getDelegatedTask()) != null) {
+                        tarefa.run();
+                    }
+                    continue;
+                }
+                if (estado == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                    if (encriptar(ligacao, VAZIO).getStatus() == SSLEngineResult.Status.CLOSED) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (!entrada.hasRemaining()) {
+                    return true;
+                }
+
+                entradaAplicacao.clear();
+                SSLEngineResult resultado = engine.unwrap(entrada, entradaAplicacao);
+                switch (resultado.getStatus()) {
+                    case BUFFER_UNDERFLOW:
+                        return true;
+                    case BUFFER_OVERFLOW:
+                        throw new SSLException("Buffer de aplicação insuficiente");
+                    case CLOSED:
+                        return false;
+                    default:
+                        entradaAplicacao.flip();
+                        if (entradaAplicacao.hasRemaining()) {
+                            ligacao.acumular(entradaAplicacao);
+                        }
+                }
+            }
+        }
+
+        private SSLEngineResult encriptar(Ligacao ligacao, ByteBuffer dados) throws SSLException {
+            while (true) {
+                ligacao.garantirSaida(tamanhoPacote);
+                SSLEngineResult resultado = ligacao.engine.wrap(dados, ligacao.saidaRede);
+                if (resultado.getStatus() == SSLEngineResult.Status.CLOSED || !dados.hasRemaining()) {
+                    return resultado;
+                }
+            }
+        }
+
+        private void despejar(Ligacao ligacao) throws IOException {
+            if (ligacao.saidaRede == null) {
+                return;
+            }
+            ligacao.saidaRede.flip();
+            ligacao.canal.write(ligacao.saidaRede);
+            if (ligacao.saidaRede.hasRemaining()) {
+                ligacao.saidaRede.compact();
+                ligacao.chave.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else {
+                ligacao.saidaRede = null;
+                ligacao.chave.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void descodificarPedidos(Ligacao ligacao) throws IOException {
+            if (ligacao.formato == null && !negociarFormato(ligacao)) {
+                return;
+            }
+            if (ligacao.formato == CanalMensagens.Formato.BINARIO) {
+                descodificarTramas(ligacao);
+            } else {
+                descodificarObjetos(ligacao);
+            }
+        }
+
+        private boolean negociarFormato(Ligacao ligacao) throws IOException {
+            if (ligacao.tamanho >= 2 && CodecBinario.isSerializacaoJava(ligacao.dados, 0)) {
+                ligacao.formato = CanalMensagens.Formato.JAVA;
+                return true;
+            }
+            if (ligacao.tamanho < CodecBinario.TAMANHO_SAUDACAO) {
+                return false;
+            }
+            if (!CodecBinario.isSaudacao(ligacao.dados, 0)) {
+                throw new StreamCorruptedException("Início de ligação desconhecido");
+            }
+            byte versao = (byte) Math.min(ligacao.dados[3], CodecBinario.VERSAO);
+            ligacao.consumir(CodecBinario.TAMANHO_SAUDACAO);
+            ligacao.formato = CanalMensagens.Formato.BINARIO;
+            encriptar(ligacao, ByteBuffer.wrap(CodecBinario.saudacao(versao)));
+            return true;
+        }
+
+        private void descodificarTramas(Ligacao ligacao) throws IOException {
+            while (ligacao.tamanho >= 4) {
+                byte[] dados = ligacao.dados;
+                int tamanhoTrama = ((dados[0] & 0xFF) << 24) | ((dados[1] & 0xFF) << 16)
+                        | ((dados[2] & 0xFF) << 8) | (dados[3] & 0xFF);
+                if (tamanhoTrama <= 0 || tamanhoTrama > CodecBinario.TAMANHO_MAXIMO_TRAMA) {
+                    throw new StreamCorruptedException("Tamanho de trama inválido: " + tamanhoTrama);
+                }
+                if (ligacao.tamanho < 4 + tamanhoTrama) {
+                    return;
+                }
+                Object pedido = CodecBinario.descodificarTrama(dados, 4, tamanhoTrama);
+                ligacao.consumir(4 + tamanhoTrama);
+                submeter(ligacao, pedido);
+            }
+        }
+
+        private void descodificarObjetos(Ligacao ligacao) throws IOException {
+            while (ligacao.tamanho > 0) {
+                ByteArrayInputStream bis = new ByteArrayInputStream(ligacao.dados, 0, ligacao.tamanho);
+                Object pedido;
+                try {
+                    pedido = new ObjectInputStream(bis).readObject();
+                } catch (EOFException | StreamCorruptedException e) {
+                    return;
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Pedido com classe desconhecida: " + e.getMessage(), e);
+                }
+                ligacao.consumir(ligacao.tamanho - bis.available());
+                submeter(ligacao, pedido);
+            }
+        }
+
+        void enviar(Ligacao ligacao, byte[] resposta) {
+            if (ligacao.fechada) {
+                return;
+            }
+            try {
+                encriptar(ligacao, ByteBuffer.wrap(resposta));
+                despejar(ligacao);
+            } catch (IOException e) {
+                logger.debug("Erro ao enviar resposta: {}", e.getMessage());
+                fechar(ligacao);
+            }
+        }
+
+        void fechar(Ligacao ligacao) {
+            if (ligacao == null || ligacao.fechada) {
+                return;
+            }
+            ligacao.fechada = true;
+            if (ligacao.chave != null) {
+                ligacao.chave.cancel();
+                ligacoesAbertas.decrementAndGet();
+            }
+            ligacao.engine.closeOutbound();
+            fecharSilenciosamente(ligacao.canal);
+        }
+
+        private void fecharSilenciosamente(SocketChannel canal) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                logger.warn("Erro ao fechar socket: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Ligacao {
+        final ReactorIO reactor;
+        final SocketChannel canal;
+        final SSLEngine engine;
+        SelectionKey chave;
+        volatile CanalMensagens.Formato formato;
+        byte[] sobraRede;
+        ByteBuffer saidaRede;
+        byte[] dados;
+        int tamanho;
+        boolean fechada;
+
+        Ligacao(ReactorIO reactor, SocketChannel canal, SSLEngine engine) {
+            this.reactor = reactor;
+            this.canal = canal;
+            this.engine = engine;
+        }
+
+        void acumular(ByteBuffer origem) throws IOException {
+            int novoTamanho = tamanho + origem.remaining();
+            if (novoTamanho > TAMANHO_MAXIMO_PEDIDO) {
+                throw new IOException("Pedido excede o tamanho máximo");
+            }
+            if (dados == null) {
+                dados = new byte[Math.max(novoTamanho, 1024)];
+            } else if (novoTamanho > dados.length) {
+                byte[] maior = new byte[Math.max(novoTamanho, dados.length * 2)];
+                System.arraycopy(dados, 0, maior, 0, tamanho);
+                dados = maior;
+            }
+            origem.get(dados, tamanho, origem.remaining());
+            tamanho = novoTamanho;
+        }
+
+        void consumir(int consumidos) {
+            tamanho -= consumidos;
+            if (tamanho == 0) {
+                dados = null;
+            } else {
+                System.arraycopy(dados, consumidos, dados, 0, tamanho);
+            }
+        }
+
+        void garantirSaida(int livre) {
+            if (saidaRede == null) {
+                saidaRede = ByteBuffer.allocate(livre);
+            } else if (saidaRede.remaining() < livre) {
+                ByteBuffer maior = ByteBuffer.allocate(saidaRede.position() + livre);
+                saidaRede.flip();
+                maior.put(saidaRede);
+                saidaRede = maior;
+            }
+        }
+    }
+}
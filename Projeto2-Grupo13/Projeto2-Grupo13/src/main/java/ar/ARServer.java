@@ -7,32 +7,62 @@ import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLSocket;
 import java.io.IOException;
 
-public class ARServer {
+public class ARServer implements ServidorAR {
     private static final Logger logger = LogManager.getLogger(ARServer.class);
     private static final Logger securityLogger = LogManager.getLogger("SecurityLogger");
 
-    private final AutoridadeRegisto ar;
+    private static final int PORTA = 9090;
+    private static final int MAX_HANDLERS = 64;
+    private static final int CAPACIDADE_FILA = 256;
+
+    private final ProcessadorPedidos processador;
+    private final ExecutorHandlers handlers;
+    private final int tempoInatividadeMs;
     private SSLServerSocket serverSocket;
 
     public ARServer(AutoridadeRegisto ar) {
-        this.ar = ar;
+        this(ar, ModoExecucao.POOL_LIMITADO, MAX_HANDLERS, CAPACIDADE_FILA);
+    }
+
+    public ARServer(AutoridadeRegisto ar, int tempoInatividadeMs) {
+        this(ar, ModoExecucao.POOL_LIMITADO, MAX_HANDLERS, CAPACIDADE_FILA, tempoInatividadeMs);
     }
 
+    public ARServer(AutoridadeRegisto ar, ModoExecucao modo, int maxHandlers, int capacidadeFila) {
+        this(ar, modo, maxHandlers, capacidadeFila, ARClientHandler.TEMPO_INATIVIDADE_MS);
+    }
+
+    // No pool limitado cada ligação persistente inativa ocupa uma thread até expirar;
+    // um tempo curto liberta o pool mais cedo mas obriga os quiosques a religar.
+    public ARServer(AutoridadeRegisto ar, ModoExecucao modo, int maxHandlers, int capacidadeFila,
+                    int tempoInatividadeMs) {
+        if (tempoInatividadeMs <= 0) {
+            throw new IllegalArgumentException("Tempo de inatividade inválido: " + tempoInatividadeMs);
+        }
+        this.processador = new ProcessadorPedidos(ar);
+        this.handlers = new ExecutorHandlers(modo, maxHandlers, capacidadeFila);
+        this.tempoInatividadeMs = tempoInatividadeMs;
+    }
+
+    @Override
     public void start() {
         try {
-            serverSocket = SSLUtils.criarSocketServidor(9090);
+            serverSocket = SSLUtils.criarSocketServidor(PORTA);
             serverSocket.setSoTimeout(0);
 
-            logger.info("🔒 Servidor AR iniciado na porta 9090");
+            logger.info("🔒 Servidor AR iniciado na porta {} (modo {})", PORTA, handlers.getModo());
             securityLogger.info("AR_SERVER_STARTED");
 
             while (!serverSocket.isClosed()) {
                 try {
                     SSLSocket clientSocket = (SSLSocket) serverSocket.accept();
+                    clientSocket.setTcpNoDelay(true);
                     logger.debug("Nova conexão recebida: {}",
                             clientSocket.getInetAddress().getHostAddress());
 
-                    new ARClientHandler(clientSocket, ar).start();
+                    if (!handlers.submeter(new ARClientHandler(clientSocket, processador, tempoInatividadeMs))) {
+                        rejeitar(clientSocket);
+                    }
                 } catch (IOException e) {
                     if (!serverSocket.isClosed()) {
                         logger.error("Erro ao aceitar conexão: {}", e.getMessage());
@@ -47,14 +77,43 @@ public class ARServer {
         }
     }
 
+    private void rejeitar(SSLSocket clientSocket) {
+        logger.warn("Servidor AR saturado, conexão rejeitada: {} (fila={}, ativos={})",
+                clientSocket.getInetAddress().getHostAddress(),
+                handlers.getProfundidadeFila(), handlers.getHandlersAtivos());
+        try {
+            clientSocket.close();
+        } catch (IOException e) {
+            logger.warn("Erro ao fechar socket rejeitado: {}", e.getMessage());
+        }
+    }
+
+    @Override
     public void stop() {
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
+                handlers.encerrar();
                 logger.info("Servidor AR encerrado com sucesso");
             }
         } catch (IOException e) {
             logger.error("Erro ao encerrar servidor: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    public ModoExecucao getModoExecucao() {
+        return handlers.getModo();
+    }
+
+    public int getProfundidadeFila() {
+        return handlers.getProfundidadeFila();
+    }
+
+    public int getHandlersAtivos() {
+        return handlers.getHandlersAtivos();
+    }
+
+    public long getLigacoesRejeitadas() {
+        return handlers.getLigacoesRejeitadas();
+    }
+}
@@ -4,60 +4,104 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import shared.CertificadoEleitor;
 import java.security.*;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 public class AutoridadeRegisto {
     private static final Logger logger = LogManager.getLogger(AutoridadeRegisto.class);
     private static final Logger securityLogger = LogManager.getLogger("SecurityLogger");
 
-    private final PrivateKey chavePrivadaAR;
     private final PublicKey chavePublicaAR;
-    private final List<CertificadoEleitor> eleitoresRegistados = new CopyOnWriteArrayList<>();
+    private final MotorAssinatura motorAssinatura;
+    private final ConcurrentMap<String, CertificadoEleitor> porIdentificacao = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CertificadoEleitor> porNumeroSerie = new ConcurrentHashMap<>();
+    private final CacheCertificadosVerificados cacheVerificados;
 
     public AutoridadeRegisto(PrivateKey chavePrivadaAR, PublicKey chavePublicaAR) {
-        this.chavePrivadaAR = chavePrivadaAR;
+        this(chavePrivadaAR, chavePublicaAR, new CacheCertificadosVerificados(100000, Duration.ofMinutes(30)));
+    }
+
+    public AutoridadeRegisto(PrivateKey chavePrivadaAR, PublicKey chavePublicaAR,
+                             CacheCertificadosVerificados cacheVerificados) {
         this.chavePublicaAR = chavePublicaAR;
+        this.cacheVerificados = cacheVerificados;
+        this.motorAssinatura = new MotorAssinatura(chavePrivadaAR);
         logger.info("AutoridadeRegisto inicializada com chaves públicas e privadas");
     }
 
-    public synchronized void registarEleitor(CertificadoEleitor certificado) throws Exception {
+    public CertificadoEleitor registarEleitor(CertificadoEleitor certificado) throws Exception {
         try {
-            logger.debug("Iniciando registro para: {}", certificado.getIdentificacao());
-
-            if (eleitoresRegistados.stream()
-                    .anyMatch(c -> c.getIdentificacao().equals(certificado.getIdentificacao()))) {
-                throw new Exception("Eleitor já registrado");
+            return registarEleitorAsync(certificado).get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (causa instanceof Exception) {
+                throw (Exception) causa;
             }
+            throw e;
+        }
+    }
 
-            Signature sig = Signature.getInstance("SHA256withRSA");
-            sig.initSign(chavePrivadaAR);
-            sig.update(certificado.getDadosParaAssinatura());
-            byte[] assinatura = sig.sign();
-            certificado.setAssinatura(assinatura);
+    public CompletableFuture<CertificadoEleitor> registarEleitorAsync(CertificadoEleitor certificado) {
+        logger.debug("Iniciando registro para: {}", certificado.getIdentificacao());
 
-            eleitoresRegistados.add(certificado);
+        if (porIdentificacao.containsKey(certificado.getIdentificacao())) {
+            Exception e = new Exception("Eleitor já registrado");
+            logger.error("Falha no registro do eleitor {}: {}", certificado.getIdentificacao(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
 
-            securityLogger.info("REGISTRO_COMPLETO: {}", certificado.getIdentificacao());
-            logger.info("Novo eleitor registrado: {}", certificado.getIdentificacao());
-        } catch (Exception e) {
-            logger.error("Falha no registro do eleitor {}: {}",
-                    certificado.getIdentificacao(), e.getMessage(), e);
-            throw e;
+        // A chave só é descodificada a pedido; a AR não assina bytes que não são uma chave.
+        try {
+            certificado.getChavePublica();
+        } catch (IllegalStateException e) {
+            Exception erro = new Exception("Chave pública inválida");
+            logger.error("Falha no registro do eleitor {}: {}", certificado.getIdentificacao(), erro.getMessage());
+            return CompletableFuture.failedFuture(erro);
         }
+
+        return motorAssinatura.assinar(certificado.getDadosParaAssinatura())
+                .thenApply(assinatura -> {
+                    CertificadoEleitor emitido = certificado.comAssinatura(assinatura);
+
+                    if (porIdentificacao.putIfAbsent(emitido.getIdentificacao(), emitido) != null) {
+                        throw new CompletionException(new Exception("Eleitor já registrado"));
+                    }
+                    porNumeroSerie.put(emitido.getNumeroSerie(), emitido);
+
+                    securityLogger.info("REGISTRO_COMPLETO: {}", emitido.getIdentificacao());
+                    logger.info("Novo eleitor registrado: {}", emitido.getIdentificacao());
+                    return emitido;
+                })
+                .whenComplete((registado, erro) -> {
+                    if (erro != null) {
+                        Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                                ? erro.getCause() : erro;
+                        logger.error("Falha no registro do eleitor {}: {}",
+                                certificado.getIdentificacao(), causa.getMessage());
+                    }
+                });
     }
 
-    public synchronized boolean validarCertificado(CertificadoEleitor certificado) {
+    public boolean validarCertificado(CertificadoEleitor certificado) {
         try {
             logger.debug("Validando certificado para: {}", certificado.getIdentificacao());
 
-            if (!certificado.verificarAssinatura(chavePublicaAR)) {
+            if (!cacheVerificados.verificar(certificado, chavePublicaAR)) {
                 logger.warn("Assinatura inválida para: {}", certificado.getIdentificacao());
                 return false;
             }
 
-            boolean registrado = eleitoresRegistados.stream()
-                    .anyMatch(c -> c.getIdentificacao().equals(certificado.getIdentificacao()));
+            // Após revogação e novo registo da mesma identidade, o certificado antigo continua
+            // assinado pela AR; só o certificado atualmente registado é válido.
+            boolean registrado = certificado.equals(porIdentificacao.get(certificado.getIdentificacao()));
 
             if (registrado) {
                 securityLogger.info("VALIDACAO_CERTIFICADO_SUCESSO: {}",
@@ -73,7 +117,48 @@ public class AutoridadeRegisto {
         }
     }
 
-    public List<CertificadoEleitor> getEleitoresRegistados() {
-        return new CopyOnWriteArrayList<>(eleitoresRegistados);
+    public boolean revogarCertificado(String identificacao) {
+        CertificadoEleitor certificado = porIdentificacao.remove(identificacao);
+        if (certificado == null) {
+            return false;
+        }
+        porNumeroSerie.remove(certificado.getNumeroSerie(), certificado);
+        cacheVerificados.invalidar(certificado);
+
+        securityLogger.info("CERTIFICADO_REVOGADO: {}", identificacao);
+        logger.info("Certificado revogado: {}", identificacao);
+        return true;
+    }
+
+    public MotorAssinatura getMotorAssinatura() {
+        return motorAssinatura;
+    }
+
+    public void encerrar() {
+        motorAssinatura.close();
+    }
+
+    public CacheCertificadosVerificados getCacheVerificados() {
+        return cacheVerificados;
+    }
+
+    public CertificadoEleitor procurarPorIdentificacao(String identificacao) {
+        return porIdentificacao.get(identificacao);
+    }
+
+    public CertificadoEleitor procurarPorNumeroSerie(String numeroSerie) {
+        return porNumeroSerie.get(numeroSerie);
+    }
+
+    public Collection<CertificadoEleitor> getEleitoresRegistados() {
+        return Collections.unmodifiableCollection(porIdentificacao.values());
+    }
+
+    public Stream<CertificadoEleitor> streamEleitoresRegistados() {
+        return porIdentificacao.values().stream();
+    }
+
+    public int getTotalEleitoresRegistados() {
+        return porIdentificacao.size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package ar;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import shared.CertificadoEleitor;
+
+import java.security.PublicKey;
+import java.time.Duration;
+
+public class CacheCertificadosVerificados {
+    private final Cache<HashCode, String> verificados;
+
+    public CacheCertificadosVerificados(long tamanhoMaximo, Duration validade) {
+        this.verificados = CacheBuilder.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(validade)
+                .recordStats()
+                .build();
+    }
+
+    public boolean verificar(CertificadoEleitor certificado, PublicKey chavePublicaAR) {
+        byte[] impressao = certificado.getImpressao();
+        if (impressao == null) {
+            return false;
+        }
+
+        HashCode chave = HashCode.fromBytes(impressao);
+        if (verificados.getIfPresent(chave) != null) {
+            return true;
+        }
+
+        boolean valido = certificado.verificarAssinatura(chavePublicaAR);
+        if (valido) {
+            verificados.put(chave, certificado.getIdentificacao());
+        }
+        return valido;
+    }
+
+    public void invalidar(CertificadoEleitor certificado) {
+        byte[] impressao = certificado.getImpressao();
+        if (impressao != null) {
+            verificados.invalidate(HashCode.fromBytes(impressao));
+        }
+    }
+
+    public void invalidarTudo() {
+        verificados.invalidateAll();
+    }
+
+    public long getAcertos() {
+        return verificados.stats().hitCount();
+    }
+
+    public long getFalhas() {
+        return verificados.stats().missCount();
+    }
+
+    public CacheStats getEstatisticas() {
+        return verificados.stats();
+    }
+}
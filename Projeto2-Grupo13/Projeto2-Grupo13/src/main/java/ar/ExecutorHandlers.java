@@ -0,0 +1,132 @@
+package ar;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExecutorHandlers {
+    private static final Logger logger = LogManager.getLogger(ExecutorHandlers.class);
+
+    private final ModoExecucao modo;
+    private final ExecutorService executor;
+    private final Semaphore admissao;
+    private final AtomicInteger pendentes = new AtomicInteger();
+    private final AtomicInteger ativos = new AtomicInteger();
+    private final AtomicLong rejeitados = new AtomicLong();
+
+    public ExecutorHandlers(ModoExecucao modo, int maxHandlers, int capacidadeFila) {
+        ExecutorService virtual = modo == ModoExecucao.VIRTUAL ? criarExecutorVirtual() : null;
+        if (modo == ModoExecucao.VIRTUAL && virtual == null) {
+            logger.warn("Threads virtuais indisponíveis nesta JVM; a usar pool limitado");
+            modo = ModoExecucao.POOL_LIMITADO;
+        }
+        this.modo = modo;
+
+        switch (modo) {
+            case VIRTUAL:
+                this.executor = virtual;
+                this.admissao = new Semaphore(maxHandlers + capacidadeFila);
+                break;
+            case POOL_LIMITADO:
+                this.executor = new ThreadPoolExecutor(maxHandlers, maxHandlers,
+                        60L, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(capacidadeFila),
+                        new FabricaThreads("ar-handler"),
+                        new ThreadPoolExecutor.AbortPolicy());
+                this.admissao = null;
+                break;
+            default:
+                this.executor = null;
+                this.admissao = null;
+        }
+        logger.info("Executor de handlers AR em modo {} (max={}, fila={})", this.modo, maxHandlers, capacidadeFila);
+    }
+
+    public boolean submeter(Runnable handler) {
+        if (admissao != null && !admissao.tryAcquire()) {
+            rejeitados.incrementAndGet();
+            return false;
+        }
+
+        pendentes.incrementAndGet();
+        Runnable tarefa = () -> {
+            pendentes.decrementAndGet();
+            ativos.incrementAndGet();
+            try {
+                handler.run();
+            } finally {
+                ativos.decrementAndGet();
+                if (admissao != null) {
+                    admissao.release();
+                }
+            }
+        };
+
+        try {
+            if (executor == null) {
+                new Thread(tarefa).start();
+            } else {
+                executor.execute(tarefa);
+            }
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendentes.decrementAndGet();
+            if (admissao != null) {
+                admissao.release();
+            }
+            rejeitados.incrementAndGet();
+            return false;
+        }
+    }
+
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public ModoExecucao getModo() {
+        return modo;
+    }
+
+    public int getProfundidadeFila() {
+        return pendentes.get();
+    }
+
+    public int getHandlersAtivos() {
+        return ativos.get();
+    }
+
+    public long getLigacoesRejeitadas() {
+        return rejeitados.get();
+    }
+
+    private static ExecutorService criarExecutorVirtual() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static class FabricaThreads implements ThreadFactory {
+        private final String prefixo;
+        private final AtomicInteger contador = new AtomicInteger();
+
+        FabricaThreads(String prefixo) {
+            this.prefixo = prefixo;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefixo + "-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ar;
+
+public enum ModoExecucao {
+    LEGADO,
+    POOL_LIMITADO,
+    VIRTUAL
+}
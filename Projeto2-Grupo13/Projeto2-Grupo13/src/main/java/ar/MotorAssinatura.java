@@ -0,0 +1,139 @@
+package ar;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MotorAssinatura implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(MotorAssinatura.class);
+
+    private static final String ALGORITMO = "SHA256withRSA";
+    private static final int TAMANHO_LOTE = 32;
+    private static final int CAPACIDADE_FILA = 4096;
+
+    private final PrivateKey chavePrivada;
+    private final int tamanhoLote;
+    private final BlockingQueue<PedidoAssinatura> fila;
+    private final Thread[] trabalhadores;
+    private final LongAdder assinaturas = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+    private volatile boolean ativo = true;
+
+    public MotorAssinatura(PrivateKey chavePrivada) {
+        this(chavePrivada, Runtime.getRuntime().availableProcessors(), TAMANHO_LOTE, CAPACIDADE_FILA);
+    }
+
+    public MotorAssinatura(PrivateKey chavePrivada, int threads, int tamanhoLote, int capacidadeFila) {
+        this.chavePrivada = chavePrivada;
+        this.tamanhoLote = tamanhoLote;
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.trabalhadores = new Thread[threads];
+
+        ThreadFactory fabrica = new ExecutorHandlers.FabricaThreads("ar-assinatura");
+        for (int i = 0; i < threads; i++) {
+            trabalhadores[i] = fabrica.newThread(this::processar);
+            trabalhadores[i].start();
+        }
+        logger.info("Motor de assinatura iniciado com {} threads (lote={})", threads, tamanhoLote);
+    }
+
+    public CompletableFuture<byte[]> assinar(byte[] dados) {
+        CompletableFuture<byte[]> futuro = new CompletableFuture<>();
+        if (!ativo) {
+            futuro.completeExceptionally(new IllegalStateException("Motor de assinatura encerrado"));
+            return futuro;
+        }
+        try {
+            fila.put(new PedidoAssinatura(dados, futuro));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.completeExceptionally(e);
+        }
+        return futuro;
+    }
+
+    private void processar() {
+        Signature sig;
+        try {
+            sig = Signature.getInstance(ALGORITMO);
+            sig.initSign(chavePrivada);
+        } catch (GeneralSecurityException e) {
+            logger.fatal("Não foi possível inicializar a assinatura: {}", e.getMessage(), e);
+            return;
+        }
+
+        List<PedidoAssinatura> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                PedidoAssinatura primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            for (PedidoAssinatura pedido : lote) {
+                try {
+                    sig.update(pedido.dados);
+                    byte[] assinatura = sig.sign();
+                    assinaturas.increment();
+                    pedido.futuro.complete(assinatura);
+                } catch (GeneralSecurityException | RuntimeException e) {
+                    pedido.futuro.completeExceptionally(e);
+                }
+            }
+            lotes.increment();
+            lote.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        ativo = false;
+        for (Thread trabalhador : trabalhadores) {
+            try {
+                trabalhador.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        PedidoAssinatura pendente;
+        while ((pendente = fila.poll()) != null) {
+            pendente.futuro.completeExceptionally(new IllegalStateException("Motor de assinatura encerrado"));
+        }
+    }
+
+    public long getAssinaturas() {
+        return assinaturas.sum();
+    }
+
+    public double getTamanhoMedioLote() {
+        long n = lotes.sum();
+        return n == 0 ? 0 : (double) assinaturas.sum() / n;
+    }
+
+    public int getPendentes() {
+        return fila.size();
+    }
+
+    private static final class PedidoAssinatura {
+        final byte[] dados;
+        final CompletableFuture<byte[]> futuro;
+
+        PedidoAssinatura(byte[] dados, CompletableFuture<byte[]> futuro) {
+            this.dados = dados;
+            this.futuro = futuro;
+        }
+    }
+}
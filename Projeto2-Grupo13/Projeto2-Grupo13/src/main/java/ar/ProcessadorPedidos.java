@@ -0,0 +1,89 @@
+package ar;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import shared.CertificadoEleitor;
+import shared.PedidoRegisto;
+import shared.RespostaRegisto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class ProcessadorPedidos {
+    private static final Logger logger = LogManager.getLogger(ProcessadorPedidos.class);
+    private static final Logger securityLogger = LogManager.getLogger("SecurityLogger");
+
+    private final AutoridadeRegisto ar;
+
+    public ProcessadorPedidos(AutoridadeRegisto ar) {
+        this.ar = ar;
+    }
+
+    public Object processar(Object pedido) throws Exception {
+        if (pedido instanceof CertificadoEleitor) {
+            return registar((CertificadoEleitor) pedido);
+        }
+        if (pedido instanceof PedidoRegisto) {
+            return registarLote((PedidoRegisto) pedido);
+        }
+        throw new IllegalArgumentException("Pedido desconhecido: "
+                + (pedido == null ? "null" : pedido.getClass().getName()));
+    }
+
+    private RespostaRegisto registarLote(PedidoRegisto pedido) {
+        List<CertificadoEleitor> certificados = pedido.getCertificados();
+        List<CertificadoEleitor> emitidos = new ArrayList<>(certificados.size());
+        List<String> erros = new ArrayList<>(certificados.size());
+
+        logger.debug("Pedido {} com {} registos", pedido.getIdCorrelacao(), certificados.size());
+        List<CompletableFuture<CertificadoEleitor>> futuros = new ArrayList<>(certificados.size());
+        for (CertificadoEleitor certificado : certificados) {
+            logger.info("Processando registro para: {}", certificado.getIdentificacao());
+            futuros.add(ar.registarEleitorAsync(certificado));
+        }
+        for (int i = 0; i < futuros.size(); i++) {
+            try {
+                emitidos.add(futuros.get(i).join());
+                erros.add(null);
+                securityLogger.info("CERTIFICATE_ISSUED: {}", certificados.get(i).getIdentificacao());
+            } catch (CompletionException e) {
+                CertificadoEleitor existente = jaEmitido(certificados.get(i));
+                if (existente != null) {
+                    emitidos.add(existente);
+                    erros.add(null);
+                    continue;
+                }
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                if (causa instanceof CompletionException && causa.getCause() != null) {
+                    causa = causa.getCause();
+                }
+                emitidos.add(null);
+                erros.add(causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName());
+            }
+        }
+        return new RespostaRegisto(pedido.getIdCorrelacao(), emitidos, erros);
+    }
+
+    // O ARClientPersistente reenvia um pedido cujo envio falhou a meio; se a primeira cópia
+    // chegou a ser registada, o reenvio recebe o mesmo certificado em vez de "já registrado".
+    private CertificadoEleitor jaEmitido(CertificadoEleitor pedido) {
+        CertificadoEleitor existente = ar.procurarPorIdentificacao(pedido.getIdentificacao());
+        if (existente != null && Arrays.equals(existente.getResumo(), pedido.getResumo())) {
+            return existente;
+        }
+        return null;
+    }
+
+    private CertificadoEleitor registar(CertificadoEleitor certificado) throws Exception {
+        logger.info("Processando registro para: {}", certificado.getIdentificacao());
+
+        CertificadoEleitor emitido = ar.registarEleitor(certificado);
+
+        securityLogger.info("CERTIFICATE_ISSUED: {}", emitido.getIdentificacao());
+        logger.info("Registro concluído para: {}", emitido.getIdentificacao());
+        return emitido;
+    }
+}
@@ -0,0 +1,7 @@
+package ar;
+
+public interface ServidorAR {
+    void start();
+
+    void stop();
+}
@@ -1,9 +1,7 @@
 package eleitor;
 
+import shared.CanalMensagens;
 import shared.CertificadoEleitor;
-import shared.NetworkUtils;
-import shared.SSLUtils;
-import javax.net.ssl.SSLSocket;
 import java.io.IOException;
 import java.security.PublicKey;
 
@@ -14,27 +12,26 @@ public class ARClient {
     public static CertificadoEleitor enviarCertificadoParaAR(
             String identificacao, PublicKey chavePublica) throws Exception {
 
-        SSLSocket socket = null;
+        CanalMensagens canal = null;
         try {
-            socket = (SSLSocket) SSLUtils.criarContextoSSL()
-                    .getSocketFactory().createSocket(AR_HOST, AR_PORT);
+            canal = CanalMensagens.ligar(AR_HOST, AR_PORT);
 
-            socket.setSoTimeout(10000);
+            canal.getSocket().setSoTimeout(10000);
 
             CertificadoEleitor certificado = new CertificadoEleitor(identificacao, chavePublica);
-            NetworkUtils.sendObject(socket, certificado);
+            canal.enviar(certificado);
 
-            CertificadoEleitor resposta = (CertificadoEleitor) NetworkUtils.receiveObject(socket);
+            CertificadoEleitor resposta = (CertificadoEleitor) canal.receber();
             return resposta;
 
         } finally {
-            if (socket != null && !socket.isClosed()) {
+            if (canal != null && !canal.getSocket().isClosed()) {
                 try {
-                    socket.close();
+                    canal.close();
                 } catch (IOException e) {
                     System.err.println("Erro ao fechar socket: " + e.getMessage());
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package eleitor;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import shared.CanalMensagens;
+import shared.CertificadoEleitor;
+import shared.PedidoRegisto;
+import shared.RespostaRegisto;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ARClientPersistente implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ARClientPersistente.class);
+
+    private static final String AR_HOST = "localhost";
+    private static final int AR_PORT = 9090;
+    private static final int LIGACOES = 2;
+    private static final int MAX_PEDIDOS_EM_CURSO = 32;
+    private static final long TIMEOUT_MS = 10000;
+
+    private final String host;
+    private final int porta;
+    private final Ligacao[] ligacoes;
+    private final AtomicLong proximoId = new AtomicLong();
+    private final AtomicInteger proximaLigacao = new AtomicInteger();
+    private volatile boolean fechado;
+
+    public ARClientPersistente() {
+        this(AR_HOST, AR_PORT, LIGACOES);
+    }
+
+    public ARClientPersistente(String host, int porta, int numLigacoes) {
+        this.host = host;
+        this.porta = porta;
+        this.ligacoes = new Ligacao[numLigacoes];
+        for (int i = 0; i < numLigacoes; i++) {
+            ligacoes[i] = new Ligacao();
+        }
+    }
+
+    public CertificadoEleitor registar(String identificacao, PublicKey chavePublica) throws Exception {
+        return aguardar(registarAsync(identificacao, chavePublica));
+    }
+
+    public CompletableFuture<CertificadoEleitor> registarAsync(String identificacao, PublicKey chavePublica) {
+        return enviar(Collections.singletonList(new CertificadoEleitor(identificacao, chavePublica)))
+                .thenApply(resposta -> {
+                    if (!resposta.isSucesso(0)) {
+                        throw new CompletionException(new Exception(resposta.getErros().get(0)));
+                    }
+                    return resposta.getCertificados().get(0);
+                });
+    }
+
+    public RespostaRegisto registarLote(List<CertificadoEleitor> certificados) throws Exception {
+        return aguardar(enviar(certificados));
+    }
+
+    public CompletableFuture<RespostaRegisto> enviar(List<CertificadoEleitor> certificados) {
+        if (fechado) {
+            CompletableFuture<RespostaRegisto> falha = new CompletableFuture<>();
+            falha.completeExceptionally(new IllegalStateException("Cliente AR encerrado"));
+            return falha;
+        }
+        PedidoRegisto pedido = new PedidoRegisto(proximoId.incrementAndGet(), certificados);
+        Ligacao ligacao = ligacoes[Math.floorMod(proximaLigacao.getAndIncrement(), ligacoes.length)];
+        return ligacao.enviar(pedido);
+    }
+
+    @Override
+    public void close() {
+        fechado = true;
+        for (Ligacao ligacao : ligacoes) {
+            ligacao.fechar();
+        }
+    }
+
+    private static <T> T aguardar(CompletableFuture<T> futuro) throws Exception {
+        try {
+            return futuro.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof CompletionException && causa.getCause() != null) {
+                causa = causa.getCause();
+            }
+            if (causa instanceof Exception) {
+                throw (Exception) causa;
+            }
+            throw e;
+        }
+    }
+
+    private final class Ligacao {
+        private final Semaphore emCurso = new Semaphore(MAX_PEDIDOS_EM_CURSO);
+        private Canal canal;
+
+        CompletableFuture<RespostaRegisto> enviar(PedidoRegisto pedido) {
+            CompletableFuture<RespostaRegisto> futuro = new CompletableFuture<>();
+            try {
+                if (!emCurso.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    futuro.completeExceptionally(new IOException("Demasiados pedidos em curso"));
+                    return futuro;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futuro.completeExceptionally(e);
+                return futuro;
+            }
+            futuro.whenComplete((resposta, erro) -> emCurso.release());
+
+            for (int tentativa = 0; ; tentativa++) {
+                Canal destino = null;
+                try {
+                    synchronized (this) {
+                        destino = abrir();
+                        destino.pendentes.put(pedido.getIdCorrelacao(), futuro);
+                        destino.mensagens.enviar(pedido);
+                    }
+                    if (destino.fechado) {
+                        destino.falharPendentes();
+                    }
+                    return futuro;
+                } catch (Exception e) {
+                    if (destino != null) {
+                        destino.pendentes.remove(pedido.getIdCorrelacao());
+                        destino.fechar();
+                    }
+                    if (tentativa > 0 || fechado) {
+                        futuro.completeExceptionally(e);
+                        return futuro;
+                    }
+                }
+            }
+        }
+
+        private Canal abrir() throws Exception {
+            if (canal == null || canal.fechado) {
+                canal = new Canal(CanalMensagens.ligar(host, porta));
+                Thread leitor = new Thread(canal::ler, "ar-client-leitor");
+                leitor.setDaemon(true);
+                leitor.start();
+            }
+            return canal;
+        }
+
+        synchronized void fechar() {
+            if (canal != null) {
+                canal.fechar();
+            }
+        }
+    }
+
+    private final class Canal {
+        private final CanalMensagens mensagens;
+        private final Map<Long, CompletableFuture<RespostaRegisto>> pendentes = new ConcurrentHashMap<>();
+        private volatile boolean fechado;
+
+        Canal(CanalMensagens mensagens) {
+            this.mensagens = mensagens;
+        }
+
+        void ler() {
+            try {
+                while (!mensagens.getSocket().isClosed()) {
+                    Object objeto = mensagens.receber();
+                    if (!(objeto instanceof RespostaRegisto)) {
+                        throw new IOException("Resposta inesperada da AR: " + objeto);
+                    }
+                    RespostaRegisto resposta = (RespostaRegisto) objeto;
+                    CompletableFuture<RespostaRegisto> futuro = pendentes.remove(resposta.getIdCorrelacao());
+                    if (futuro != null) {
+                        futuro.complete(resposta);
+                    }
+                }
+            } catch (Exception e) {
+                if (!fechado && !ARClientPersistente.this.fechado) {
+                    logger.debug("Ligação à AR terminada: {}", e.getMessage());
+                }
+            } finally {
+                fechar();
+            }
+        }
+
+        void fechar() {
+            fechado = true;
+            try {
+                mensagens.close();
+            } catch (IOException e) {
+                logger.warn("Erro ao fechar socket: {}", e.getMessage());
+            }
+            falharPendentes();
+        }
+
+        void falharPendentes() {
+            for (Long id : pendentes.keySet()) {
+                CompletableFuture<RespostaRegisto> futuro = pendentes.remove(id);
+                if (futuro != null) {
+                    futuro.completeExceptionally(new IOException("Ligação à AR perdida"));
+                }
+            }
+        }
+    }
+}
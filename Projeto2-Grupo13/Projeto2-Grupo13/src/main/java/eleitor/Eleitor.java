@@ -3,12 +3,17 @@ package eleitor;
 import ar.AutoridadeRegisto;
 import shared.CertificadoEleitor;
 import shared.CryptoUtils;
+import shared.DefinicaoEleicao;
 import shared.PacoteVoto;
+import shared.RaizAssinada;
+import shared.ReciboVoto;
+import shared.ReservaChaves;
+import shared.SuiteCifra;
 import shared.exceptions.AutenticacaoFalhouException;
 import sv.ServidorVotacao;
 import ue.UrnaEletronica;
 
-import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.security.*;
 import java.util.UUID;
 
@@ -17,6 +22,7 @@ public class Eleitor {
     private final KeyPair parChaves;
     private CertificadoEleitor certificado;
     private UUID tokenVoto;
+    private byte[] votoSubmetido;
 
     public Eleitor(String identificacao) throws NoSuchAlgorithmException {
         this.identificacao = identificacao;
@@ -25,11 +31,21 @@ public class Eleitor {
         this.parChaves = keyGen.generateKeyPair();
     }
 
+    public Eleitor(String identificacao, ReservaChaves reservaChaves) throws GeneralSecurityException {
+        this.identificacao = identificacao;
+        this.parChaves = reservaChaves.obter();
+    }
+
     public CertificadoEleitor registarNaAR() throws Exception {
         this.certificado = ARClient.enviarCertificadoParaAR(identificacao, parChaves.getPublic());
         return certificado;
     }
 
+    public CertificadoEleitor registarNaAR(ARClientPersistente clienteAR) throws Exception {
+        this.certificado = clienteAR.registar(identificacao, parChaves.getPublic());
+        return certificado;
+    }
+
     public void autenticarNoSV(ServidorVotacao servidorVotacao) throws AutenticacaoFalhouException {
         if (certificado == null) {
             throw new AutenticacaoFalhouException("Eleitor não possui certificado válido");
@@ -38,16 +54,42 @@ public class Eleitor {
     }
 
     public void votar(String opcaoVoto, UrnaEletronica urna, PublicKey chavePublicaAA) throws Exception {
+        enviarVoto(ByteBuffer.wrap(opcaoVoto.getBytes()), urna, chavePublicaAA, SuiteCifra.daChave(chavePublicaAA));
+    }
+
+    public void votar(int escolha, UrnaEletronica urna, PublicKey chavePublicaAA,
+                      DefinicaoEleicao definicao) throws Exception {
+        enviarVoto(ByteBuffer.wrap(definicao.codificarVoto(escolha)), urna, chavePublicaAA, definicao.getSuite());
+    }
+
+    private void enviarVoto(ByteBuffer textoClaro, UrnaEletronica urna, PublicKey chavePublicaAA,
+                            SuiteCifra suite) throws Exception {
         if (tokenVoto == null) {
             throw new IllegalStateException("Eleitor não autenticado");
         }
 
-        SecretKey chaveAES = CryptoUtils.generateAESKey();
-        byte[] votoEncriptado = CryptoUtils.encryptAES(opcaoVoto.getBytes(), chaveAES);
-        byte[] chaveEncriptada = CryptoUtils.encryptRSA(chaveAES.getEncoded(), chavePublicaAA);
+        SuiteCifra.Encapsulamento encapsulamento = suite.encapsular(chavePublicaAA);
+        byte[] votoEncriptado = new byte[CryptoUtils.aesOutputSize(textoClaro.remaining())];
+        CryptoUtils.encryptAES(textoClaro, encapsulamento.getChave(), ByteBuffer.wrap(votoEncriptado));
+
+        PacoteVoto pacote = new PacoteVoto(votoEncriptado, encapsulamento.getEncapsulada());
+        byte[] boletim = pacote.toByteArray();
+        urna.receberVoto(boletim, tokenVoto);
+        this.votoSubmetido = boletim;
+    }
+
+    public ReciboVoto obterRecibo(UrnaEletronica urna) throws NoSuchAlgorithmException {
+        if (votoSubmetido == null) {
+            throw new IllegalStateException("Eleitor ainda não votou");
+        }
+        if (urna.getQuadro() == null) {
+            throw new IllegalStateException("Urna sem quadro de votos");
+        }
+        return urna.getQuadro().obterRecibo(votoSubmetido);
+    }
 
-        PacoteVoto pacote = new PacoteVoto(votoEncriptado, chaveEncriptada);
-        urna.receberVoto(pacote.toByteArray(), tokenVoto);
+    public boolean verificarRecibo(ReciboVoto recibo, RaizAssinada raiz, PublicKey chaveUrna) {
+        return recibo != null && votoSubmetido != null && recibo.verificar(votoSubmetido, raiz, chaveUrna);
     }
 
     public String getIdentificacao() { return identificacao; }
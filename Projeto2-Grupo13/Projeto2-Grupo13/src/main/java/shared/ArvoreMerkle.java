@@ -0,0 +1,185 @@
+package shared;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Árvore de Merkle no formato do RFC 6962: folha = H(0x00 || dados), nó = H(0x01 || esq || dir),
+// e um intervalo de n folhas divide-se na maior potência de dois inferior a n.
+// Só há um escritor (acrescentar); raízes e provas podem ser pedidas em paralelo
+// para qualquer tamanho já publicado. Os nós completos ficam fora do heap.
+public class ArvoreMerkle {
+    public static final int TAMANHO_HASH = 32;
+    public static final long MAX_FOLHAS = 1L << 26;
+
+    private static final byte[] PREFIXO_FOLHA = {0};
+    private static final byte[] PREFIXO_NO = {1};
+    private static final int BITS_SEGMENTO = 10;
+    private static final int MASCARA_SEGMENTO = (1 << BITS_SEGMENTO) - 1;
+    private static final int NIVEIS = Long.numberOfTrailingZeros(MAX_FOLHAS) + 1;
+
+    private final List<AtomicReferenceArray<ByteBuffer>> niveis;
+    private volatile long tamanho;
+
+    public ArvoreMerkle() {
+        List<AtomicReferenceArray<ByteBuffer>> segmentos = new ArrayList<>(NIVEIS);
+        for (int nivel = 0; nivel < NIVEIS; nivel++) {
+            long nos = MAX_FOLHAS >>> nivel;
+            segmentos.add(new AtomicReferenceArray<>((int) Math.max(1, nos >>> BITS_SEGMENTO)));
+        }
+        this.niveis = List.copyOf(segmentos);
+    }
+
+    public static byte[] hashFolha(ByteBuffer dados) throws NoSuchAlgorithmException {
+        return CryptoUtils.sha256(ByteBuffer.wrap(PREFIXO_FOLHA), dados.duplicate());
+    }
+
+    public static byte[] hashFolha(byte[] dados) throws NoSuchAlgorithmException {
+        return CryptoUtils.sha256(PREFIXO_FOLHA, dados);
+    }
+
+    public static byte[] hashNo(byte[] esquerda, byte[] direita) throws NoSuchAlgorithmException {
+        return CryptoUtils.sha256(PREFIXO_NO, esquerda, direita);
+    }
+
+    public static byte[] raiz(List<byte[]> nos) throws NoSuchAlgorithmException {
+        if (nos.isEmpty()) {
+            return CryptoUtils.sha256(new byte[0]);
+        }
+        return combinar(nos, 0, nos.size());
+    }
+
+    private static byte[] combinar(List<byte[]> nos, int inicio, int fim) throws NoSuchAlgorithmException {
+        int n = fim - inicio;
+        if (n == 1) {
+            return nos.get(inicio);
+        }
+        int k = Integer.highestOneBit(n - 1);
+        return hashNo(combinar(nos, inicio, inicio + k), combinar(nos, inicio + k, fim));
+    }
+
+    public void acrescentar(byte[] folha) throws NoSuchAlgorithmException {
+        long indice = tamanho;
+        if (indice >= MAX_FOLHAS) {
+            throw new IllegalStateException("Capacidade da árvore esgotada");
+        }
+        escrever(0, indice, folha);
+        byte[] atual = folha;
+        long i = indice;
+        for (int nivel = 0; (i & 1) == 1; nivel++) {
+            atual = hashNo(ler(nivel, i - 1), atual);
+            i >>>= 1;
+            escrever(nivel + 1, i, atual);
+        }
+        tamanho = indice + 1;
+    }
+
+    public long getTamanho() {
+        return tamanho;
+    }
+
+    public byte[] getFolha(long indice) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Folha inexistente: " + indice);
+        }
+        return ler(0, indice);
+    }
+
+    public byte[] raiz() throws NoSuchAlgorithmException {
+        return raiz(tamanho);
+    }
+
+    public byte[] raiz(long n) throws NoSuchAlgorithmException {
+        verificarTamanho(n);
+        return n == 0 ? CryptoUtils.sha256(new byte[0]) : subarvore(0, n);
+    }
+
+    public List<byte[]> provaInclusao(long indice, long n) throws NoSuchAlgorithmException {
+        verificarTamanho(n);
+        if (indice < 0 || indice >= n) {
+            throw new IndexOutOfBoundsException("Folha " + indice + " fora de uma árvore com " + n + " folhas");
+        }
+        List<byte[]> caminho = new ArrayList<>(64 - Long.numberOfLeadingZeros(n));
+        caminho(indice, 0, n, caminho);
+        return caminho;
+    }
+
+    // RFC 9162, secção 2.1.3.2.
+    public static boolean verificarInclusao(byte[] folha, long indice, long n, List<byte[]> caminho, byte[] raiz)
+            throws NoSuchAlgorithmException {
+        if (indice < 0 || indice >= n) {
+            return false;
+        }
+        long fn = indice;
+        long sn = n - 1;
+        byte[] r = folha;
+        for (byte[] irmao : caminho) {
+            if (sn == 0) {
+                return false;
+            }
+            if ((fn & 1) == 1 || fn == sn) {
+                r = hashNo(irmao, r);
+                while ((fn & 1) == 0 && fn != 0) {
+                    fn >>>= 1;
+                    sn >>>= 1;
+                }
+            } else {
+                r = hashNo(r, irmao);
+            }
+            fn >>>= 1;
+            sn >>>= 1;
+        }
+        return sn == 0 && Arrays.equals(r, raiz);
+    }
+
+    private void caminho(long m, long inicio, long fim, List<byte[]> caminho) throws NoSuchAlgorithmException {
+        long n = fim - inicio;
+        if (n <= 1) {
+            return;
+        }
+        long k = Long.highestOneBit(n - 1);
+        if (m < k) {
+            caminho(m, inicio, inicio + k, caminho);
+            caminho.add(subarvore(inicio + k, fim));
+        } else {
+            caminho(m - k, inicio + k, fim, caminho);
+            caminho.add(subarvore(inicio, inicio + k));
+        }
+    }
+
+    private byte[] subarvore(long inicio, long fim) throws NoSuchAlgorithmException {
+        long n = fim - inicio;
+        if (Long.bitCount(n) == 1 && inicio % n == 0) {
+            int nivel = Long.numberOfTrailingZeros(n);
+            return ler(nivel, inicio >>> nivel);
+        }
+        long k = Long.highestOneBit(n - 1);
+        return hashNo(subarvore(inicio, inicio + k), subarvore(inicio + k, fim));
+    }
+
+    private void verificarTamanho(long n) {
+        if (n < 0 || n > tamanho) {
+            throw new IllegalArgumentException("Tamanho " + n + " ainda não publicado (atual " + tamanho + ")");
+        }
+    }
+
+    private void escrever(int nivel, long indice, byte[] hash) {
+        AtomicReferenceArray<ByteBuffer> segmentos = niveis.get(nivel);
+        int numero = (int) (indice >>> BITS_SEGMENTO);
+        ByteBuffer segmento = segmentos.get(numero);
+        if (segmento == null) {
+            segmento = ByteBuffer.allocateDirect(TAMANHO_HASH << BITS_SEGMENTO);
+            segmentos.set(numero, segmento);
+        }
+        segmento.put((int) (indice & MASCARA_SEGMENTO) * TAMANHO_HASH, hash);
+    }
+
+    private byte[] ler(int nivel, long indice) {
+        byte[] hash = new byte[TAMANHO_HASH];
+        niveis.get(nivel).get((int) (indice >>> BITS_SEGMENTO)).get((int) (indice & MASCARA_SEGMENTO) * TAMANHO_HASH, hash);
+        return hash;
+    }
+}
@@ -0,0 +1,130 @@
+package shared;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLSocket;
+import java.io.*;
+
+public class CanalMensagens implements Closeable {
+    private static final Logger logger = LogManager.getLogger(CanalMensagens.class);
+
+    private static final int TAMANHO_BUFFER = 16 * 1024;
+    private static final int TIMEOUT_NEGOCIACAO_MS = 10000;
+
+    public enum Formato {
+        BINARIO,
+        JAVA
+    }
+
+    private final SSLSocket socket;
+    private final BufferedInputStream entradaBuffer;
+    private final DataInputStream entrada;
+    private final DataOutputStream saida;
+    private final ByteArrayOutputStream corpo = new ByteArrayOutputStream(1024);
+    private final DataOutputStream escritorCorpo = new DataOutputStream(corpo);
+    private byte[] trama = new byte[1024];
+    private Formato formato;
+
+    private CanalMensagens(SSLSocket socket) throws IOException {
+        this.socket = socket;
+        this.entradaBuffer = new BufferedInputStream(socket.getInputStream(), TAMANHO_BUFFER);
+        this.entrada = new DataInputStream(entradaBuffer);
+        this.saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), TAMANHO_BUFFER));
+    }
+
+    public static CanalMensagens ligar(String host, int porta) throws Exception {
+        SSLSocket socket = SSLUtils.criarSocketCliente(host, porta);
+        try {
+            return cliente(socket, Formato.BINARIO);
+        } catch (IOException e) {
+            logger.info("Servidor não aceitou o formato binário ({}); a usar serialização Java", e.getMessage());
+            socket.close();
+            return cliente(SSLUtils.criarSocketCliente(host, porta), Formato.JAVA);
+        }
+    }
+
+    public static CanalMensagens cliente(SSLSocket socket, Formato preferido) throws IOException {
+        CanalMensagens canal = new CanalMensagens(socket);
+        if (preferido == Formato.BINARIO) {
+            int timeoutAnterior = socket.getSoTimeout();
+            socket.setSoTimeout(TIMEOUT_NEGOCIACAO_MS);
+            canal.saida.write(CodecBinario.saudacao(CodecBinario.VERSAO));
+            canal.saida.flush();
+
+            byte[] resposta = new byte[CodecBinario.TAMANHO_SAUDACAO];
+            canal.entrada.readFully(resposta);
+            if (!CodecBinario.isSaudacao(resposta, 0) || resposta[3] != CodecBinario.VERSAO) {
+                throw new IOException("Saudação binária inválida");
+            }
+            socket.setSoTimeout(timeoutAnterior);
+        }
+        canal.formato = preferido;
+        return canal;
+    }
+
+    public static CanalMensagens servidor(SSLSocket socket) throws IOException {
+        CanalMensagens canal = new CanalMensagens(socket);
+        byte[] inicio = new byte[CodecBinario.TAMANHO_SAUDACAO];
+
+        canal.entradaBuffer.mark(inicio.length);
+        canal.entrada.readFully(inicio, 0, 2);
+        if (CodecBinario.isSerializacaoJava(inicio, 0)) {
+            canal.entradaBuffer.reset();
+            canal.formato = Formato.JAVA;
+            return canal;
+        }
+
+        canal.entrada.readFully(inicio, 2, 2);
+        if (!CodecBinario.isSaudacao(inicio, 0)) {
+            throw new StreamCorruptedException("Início de ligação desconhecido");
+        }
+        byte versao = (byte) Math.min(inicio[3], CodecBinario.VERSAO);
+        canal.saida.write(CodecBinario.saudacao(versao));
+        canal.saida.flush();
+        canal.formato = Formato.BINARIO;
+        return canal;
+    }
+
+    public void enviar(Object mensagem) throws IOException {
+        if (formato == Formato.JAVA) {
+            ObjectOutputStream oos = new ObjectOutputStream(saida);
+            oos.writeObject(mensagem);
+            oos.flush();
+            return;
+        }
+        corpo.reset();
+        CodecBinario.escrever(escritorCorpo, mensagem);
+        saida.writeInt(corpo.size());
+        corpo.writeTo(saida);
+        saida.flush();
+    }
+
+    public Object receber() throws IOException, ClassNotFoundException {
+        if (formato == Formato.JAVA) {
+            return new ObjectInputStream(entrada).readObject();
+        }
+        int tamanho = entrada.readInt();
+        if (tamanho <= 0 || tamanho > CodecBinario.TAMANHO_MAXIMO_TRAMA) {
+            throw new StreamCorruptedException("Tamanho de trama inválido: " + tamanho);
+        }
+        if (tamanho > trama.length) {
+            trama = new byte[Math.max(tamanho, trama.length * 2)];
+        }
+        entrada.readFully(trama, 0, tamanho);
+        return CodecBinario.descodificarTrama(trama, 0, tamanho);
+    }
+
+    public Formato getFormato() {
+        return formato;
+    }
+
+    public SSLSocket getSocket() {
+        return socket;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -1,47 +1,127 @@
 package shared;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ExecutionException;
+
+// Valor imutável: os bytes assinados e o respetivo resumo são calculados uma vez na
+// construção. Os bytes assinados são uma estrutura DER
+//
+//   SEQUENCE { INTEGER versão, UTF8String identificação, SubjectPublicKeyInfo }
+//
+// A PublicKey só é descodificada quando pedida, e certificados com a mesma chave
+// partilham a instância descodificada.
+public final class CertificadoEleitor implements Serializable {
+    private static final long serialVersionUID = 2L;
 
-public class CertificadoEleitor implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_NUMERO_SERIE = 20;
+    private static final Cache<ByteBuffer, PublicKey> CHAVES = CacheBuilder.newBuilder()
+            .maximumSize(16_384)
+            .build();
 
     private final String identificacao;
-    private transient PublicKey chavePublica;
-    private byte[] assinatura;
-    private byte[] chavePublicaBytes;
+    private final byte[] chavePublicaBytes;
+    private final byte[] assinatura;
+    private final transient byte[] dadosAssinatura;
+    private final transient byte[] resumo;
+    private transient volatile PublicKey chavePublica;
+    private transient volatile String numeroSerie;
+    private transient volatile byte[] impressao;
 
     public CertificadoEleitor(String identificacao, PublicKey chavePublica) {
-        this.identificacao = identificacao;
+        this(identificacao, chavePublica.getEncoded(), null);
         this.chavePublica = chavePublica;
-        this.chavePublicaBytes = chavePublica.getEncoded();
     }
 
-    private void writeObject(ObjectOutputStream out) throws IOException {
-        out.defaultWriteObject();
-        out.writeObject(this.chavePublicaBytes);
+    private CertificadoEleitor(String identificacao, byte[] chavePublicaBytes, byte[] assinatura) {
+        if (identificacao == null || chavePublicaBytes == null) {
+            throw new IllegalArgumentException("Identificação e chave pública são obrigatórias");
+        }
+        this.identificacao = identificacao;
+        this.chavePublicaBytes = chavePublicaBytes;
+        this.assinatura = assinatura;
+        this.dadosAssinatura = codificar(identificacao, chavePublicaBytes);
+        this.resumo = DigestUtils.sha256(dadosAssinatura);
+    }
+
+    private CertificadoEleitor(CertificadoEleitor original, byte[] assinatura) {
+        this.identificacao = original.identificacao;
+        this.chavePublicaBytes = original.chavePublicaBytes;
+        this.assinatura = assinatura;
+        this.dadosAssinatura = original.dadosAssinatura;
+        this.resumo = original.resumo;
+        this.chavePublica = original.chavePublica;
+        this.numeroSerie = original.numeroSerie;
     }
 
-    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        in.defaultReadObject();
-        this.chavePublicaBytes = (byte[]) in.readObject();
-        try {
-            this.chavePublica = KeyFactory.getInstance("RSA")
-                    .generatePublic(new X509EncodedKeySpec(chavePublicaBytes));
-        } catch (Exception e) {
-            throw new IOException("Falha ao reconstruir PublicKey", e);
+    static CertificadoEleitor reconstruir(String identificacao, byte[] chavePublicaBytes, byte[] assinatura) {
+        return new CertificadoEleitor(identificacao, chavePublicaBytes, assinatura);
+    }
+
+    public CertificadoEleitor comAssinatura(byte[] assinatura) {
+        return new CertificadoEleitor(this, assinatura.clone());
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        if (identificacao == null || chavePublicaBytes == null) {
+            throw new InvalidObjectException("Certificado incompleto");
         }
+        return new CertificadoEleitor(identificacao, chavePublicaBytes, assinatura);
     }
 
-    public byte[] getDadosParaAssinatura() {
-        String dados = identificacao + Base64.getEncoder().encodeToString(chavePublicaBytes);
-        return dados.getBytes();
+    private static byte[] codificar(String identificacao, byte[] chavePublicaBytes) {
+        byte[] id = identificacao.getBytes(StandardCharsets.UTF_8);
+        int conteudo = 3 + tamanhoTlv(id.length) + chavePublicaBytes.length;
+        ByteBuffer der = ByteBuffer.allocate(tamanhoTlv(conteudo));
+        escreverCabecalho(der, 0x30, conteudo);
+        escreverCabecalho(der, 0x02, 1).put((byte) VERSAO);
+        escreverCabecalho(der, 0x0C, id.length).put(id);
+        der.put(chavePublicaBytes);
+        return der.array();
     }
 
-    public void setAssinatura(byte[] assinatura) {
-        this.assinatura = assinatura;
+    private static int tamanhoTlv(int tamanho) {
+        int bytesTamanho = tamanho < 0x80 ? 1 : 1 + (Integer.BYTES - Integer.numberOfLeadingZeros(tamanho) / 8);
+        return 1 + bytesTamanho + tamanho;
+    }
+
+    private static ByteBuffer escreverCabecalho(ByteBuffer der, int etiqueta, int tamanho) {
+        der.put((byte) etiqueta);
+        if (tamanho < 0x80) {
+            return der.put((byte) tamanho);
+        }
+        int bytes = Integer.BYTES - Integer.numberOfLeadingZeros(tamanho) / 8;
+        der.put((byte) (0x80 | bytes));
+        for (int i = bytes - 1; i >= 0; i--) {
+            der.put((byte) (tamanho >>> (8 * i)));
+        }
+        return der;
+    }
+
+    // O eleitor pode usar chaves RSA ou EC (ReservaChaves.Algoritmo).
+    private static PublicKey decodificarChave(byte[] chavePublicaBytes) throws GeneralSecurityException {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(chavePublicaBytes);
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(spec);
+        } catch (InvalidKeySpecException e) {
+            return KeyFactory.getInstance("EC").generatePublic(spec);
+        }
+    }
+
+    public byte[] getDadosParaAssinatura() {
+        return dadosAssinatura.clone();
     }
 
     public boolean verificarAssinatura(PublicKey chavePublicaAR) {
@@ -50,24 +130,80 @@ public class CertificadoEleitor implements Serializable {
         }
 
         try {
-            Signature sig = Signature.getInstance("SHA256withRSA");
-            sig.initVerify(chavePublicaAR);
-            sig.update(this.getDadosParaAssinatura());
-            return sig.verify(this.assinatura);
+            return CryptoUtils.verifySHA256withRSA(dadosAssinatura, assinatura, chavePublicaAR);
         } catch (Exception e) {
             System.err.println("Erro na verificação: " + e.getMessage());
             return false;
         }
     }
 
+    public String getNumeroSerie() {
+        String serie = numeroSerie;
+        if (serie == null) {
+            serie = Hex.encodeHexString(Arrays.copyOf(resumo, TAMANHO_NUMERO_SERIE));
+            numeroSerie = serie;
+        }
+        return serie;
+    }
+
+    // Resumo do certificado assinado (dados e assinatura); identifica-o nas caches de verificação.
+    public byte[] getImpressao() {
+        if (assinatura == null) {
+            return null;
+        }
+        byte[] i = impressao;
+        if (i == null) {
+            MessageDigest digest = DigestUtils.getSha256Digest();
+            digest.update(resumo);
+            digest.update(assinatura);
+            i = digest.digest();
+            impressao = i;
+        }
+        return i.clone();
+    }
+
     public String toPemFormat() {
         return "-----BEGIN CERTIFICATE-----\n" +
-                Base64.getEncoder().encodeToString(this.getDadosParaAssinatura()) +
+                Base64.getEncoder().encodeToString(dadosAssinatura) +
                 "\n-----END CERTIFICATE-----\n" +
                 "Assinatura: " + (assinatura != null ? Base64.getEncoder().encodeToString(assinatura) : "NÃO ASSINADO");
     }
 
+    public PublicKey getChavePublica() {
+        PublicKey chave = chavePublica;
+        if (chave == null) {
+            try {
+                chave = CHAVES.get(ByteBuffer.wrap(chavePublicaBytes), () -> decodificarChave(chavePublicaBytes));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Chave pública inválida para: " + identificacao, e.getCause());
+            }
+            chavePublica = chave;
+        }
+        return chave;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CertificadoEleitor)) {
+            return false;
+        }
+        CertificadoEleitor outro = (CertificadoEleitor) o;
+        return Arrays.equals(resumo, outro.resumo) && Arrays.equals(assinatura, outro.assinatura);
+    }
+
+    @Override
+    public int hashCode() {
+        return ByteBuffer.wrap(resumo).getInt();
+    }
+
+    byte[] chavePublicaBytes() { return chavePublicaBytes; }
+    byte[] assinatura() { return assinatura; }
+
     public String getIdentificacao() { return identificacao; }
-    public PublicKey getChavePublica() { return chavePublica; }
-    public byte[] getAssinatura() { return assinatura; }
-}
\ No newline at end of file
+    public byte[] getAssinatura() { return assinatura != null ? assinatura.clone() : null; }
+    public byte[] getChavePublicaBytes() { return chavePublicaBytes.clone(); }
+    public byte[] getResumo() { return resumo.clone(); }
+}
@@ -0,0 +1,175 @@
+package shared;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CodecBinario {
+    public static final byte VERSAO = 1;
+    public static final int TAMANHO_SAUDACAO = 4;
+    public static final int TAMANHO_MAXIMO_TRAMA = 8 * 1024 * 1024;
+
+    private static final byte[] MAGIC = {'E', 'V', 'B'};
+
+    private static final byte TIPO_CERTIFICADO = 1;
+    private static final byte TIPO_PEDIDO_REGISTO = 2;
+    private static final byte TIPO_RESPOSTA_REGISTO = 3;
+    private static final byte TIPO_PACOTE_VOTO = 4;
+
+    private CodecBinario() {
+    }
+
+    public static byte[] saudacao(byte versao) {
+        return new byte[]{MAGIC[0], MAGIC[1], MAGIC[2], versao};
+    }
+
+    public static boolean isSaudacao(byte[] dados, int inicio) {
+        return dados[inicio] == MAGIC[0] && dados[inicio + 1] == MAGIC[1] && dados[inicio + 2] == MAGIC[2];
+    }
+
+    public static boolean isSerializacaoJava(byte[] dados, int inicio) {
+        return dados[inicio] == (byte) 0xAC && dados[inicio + 1] == (byte) 0xED;
+    }
+
+    public static byte[] codificarTrama(Object mensagem) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(0);
+        escrever(out, mensagem);
+        byte[] trama = bos.toByteArray();
+        int corpo = trama.length - 4;
+        trama[0] = (byte) (corpo >>> 24);
+        trama[1] = (byte) (corpo >>> 16);
+        trama[2] = (byte) (corpo >>> 8);
+        trama[3] = (byte) corpo;
+        return trama;
+    }
+
+    public static Object descodificarTrama(byte[] dados, int inicio, int tamanho) throws IOException {
+        return ler(new DataInputStream(new ByteArrayInputStream(dados, inicio, tamanho)));
+    }
+
+    public static void escrever(DataOutput out, Object mensagem) throws IOException {
+        if (mensagem instanceof CertificadoEleitor) {
+            out.writeByte(TIPO_CERTIFICADO);
+            escreverCertificado(out, (CertificadoEleitor) mensagem);
+        } else if (mensagem instanceof PedidoRegisto) {
+            PedidoRegisto pedido = (PedidoRegisto) mensagem;
+            out.writeByte(TIPO_PEDIDO_REGISTO);
+            out.writeLong(pedido.getIdCorrelacao());
+            out.writeInt(pedido.getCertificados().size());
+            for (CertificadoEleitor certificado : pedido.getCertificados()) {
+                escreverCertificado(out, certificado);
+            }
+        } else if (mensagem instanceof RespostaRegisto) {
+            RespostaRegisto resposta = (RespostaRegisto) mensagem;
+            out.writeByte(TIPO_RESPOSTA_REGISTO);
+            out.writeLong(resposta.getIdCorrelacao());
+            out.writeInt(resposta.getCertificados().size());
+            for (int i = 0; i < resposta.getCertificados().size(); i++) {
+                if (resposta.isSucesso(i)) {
+                    out.writeBoolean(true);
+                    escreverCertificado(out, resposta.getCertificados().get(i));
+                } else {
+                    out.writeBoolean(false);
+                    out.writeUTF(resposta.getErros().get(i));
+                }
+            }
+        } else if (mensagem instanceof PacoteVoto) {
+            PacoteVoto pacote = (PacoteVoto) mensagem;
+            out.writeByte(TIPO_PACOTE_VOTO);
+            escreverBytes(out, pacote.getVotoEncriptado());
+            escreverBytes(out, pacote.getChaveEncriptada());
+            escreverBytes(out, pacote.getHash());
+        } else {
+            throw new IOException("Mensagem sem esquema binário: "
+                    + (mensagem == null ? "null" : mensagem.getClass().getName()));
+        }
+    }
+
+    public static Object ler(DataInput in) throws IOException {
+        byte tipo = in.readByte();
+        switch (tipo) {
+            case TIPO_CERTIFICADO:
+                return lerCertificado(in);
+            case TIPO_PEDIDO_REGISTO: {
+                long id = in.readLong();
+                int n = lerQuantidade(in);
+                List<CertificadoEleitor> certificados = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    certificados.add(lerCertificado(in));
+                }
+                return new PedidoRegisto(id, certificados);
+            }
+            case TIPO_RESPOSTA_REGISTO: {
+                long id = in.readLong();
+                int n = lerQuantidade(in);
+                List<CertificadoEleitor> certificados = new ArrayList<>(n);
+                List<String> erros = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    if (in.readBoolean()) {
+                        certificados.add(lerCertificado(in));
+                        erros.add(null);
+                    } else {
+                        certificados.add(null);
+                        erros.add(in.readUTF());
+                    }
+                }
+                return new RespostaRegisto(id, certificados, erros);
+            }
+            case TIPO_PACOTE_VOTO:
+                return new PacoteVoto(lerBytes(in), lerBytes(in), lerBytes(in));
+            default:
+                throw new IOException("Tipo de mensagem desconhecido: " + tipo);
+        }
+    }
+
+    private static void escreverCertificado(DataOutput out, CertificadoEleitor certificado) throws IOException {
+        out.writeUTF(certificado.getIdentificacao());
+        escreverBytes(out, certificado.chavePublicaBytes());
+        escreverBytes(out, certificado.assinatura());
+    }
+
+    private static CertificadoEleitor lerCertificado(DataInput in) throws IOException {
+        String identificacao = in.readUTF();
+        byte[] chave = lerBytes(in);
+        byte[] assinatura = lerBytes(in);
+        return CertificadoEleitor.reconstruir(identificacao, chave, assinatura);
+    }
+
+    private static void escreverBytes(DataOutput out, byte[] dados) throws IOException {
+        if (dados == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(dados.length);
+            out.write(dados);
+        }
+    }
+
+    private static byte[] lerBytes(DataInput in) throws IOException {
+        int tamanho = in.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        if (tamanho > TAMANHO_MAXIMO_TRAMA) {
+            throw new IOException("Campo excede o tamanho máximo: " + tamanho);
+        }
+        byte[] dados = new byte[tamanho];
+        in.readFully(dados);
+        return dados;
+    }
+
+    private static int lerQuantidade(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > TAMANHO_MAXIMO_TRAMA) {
+            throw new IOException("Quantidade inválida: " + n);
+        }
+        return n;
+    }
+}
@@ -2,60 +2,312 @@ package shared;
 
 import javax.crypto.*;
 import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.*;
-import java.util.Arrays;
+import java.security.interfaces.XECPublicKey;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.XECPublicKeySpec;
 
 public class CryptoUtils {
     private static final String RSA_ALGORITHM = "RSA";
     private static final String AES_ALGORITHM = "AES";
     private static final String AES_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+    private static final String X25519_ALGORITHM = "X25519";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
     private static final int GCM_TAG_LENGTH = 128;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BYTES = GCM_TAG_LENGTH / 8;
     private static final int AES_KEY_SIZE = 256;
     private static final int RSA_KEY_SIZE = 2048;
+    private static final int X25519_KEY_LENGTH = 32;
+    private static final int HASH_LENGTH = 32;
+
+    // Cipher, KeyGenerator, MessageDigest e Signature não são thread-safe e
+    // getInstance percorre os providers a cada chamada: cada thread guarda os seus.
+    private static final ThreadLocal<Primitivas> PRIMITIVAS = ThreadLocal.withInitial(Primitivas::new);
 
     public static SecretKey generateAESKey() throws NoSuchAlgorithmException {
-        KeyGenerator keyGen = KeyGenerator.getInstance(AES_ALGORITHM);
-        keyGen.init(AES_KEY_SIZE);
-        return keyGen.generateKey();
+        return PRIMITIVAS.get().keyGenerator().generateKey();
     }
 
     public static byte[] encryptAES(byte[] data, SecretKey key) throws Exception {
-        Cipher cipher = Cipher.getInstance(AES_TRANSFORMATION);
-        byte[] iv = new byte[12]; // 96 bits para GCM
-        new SecureRandom().nextBytes(iv);
-
-        GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-        cipher.init(Cipher.ENCRYPT_MODE, key, spec);
-
-        byte[] encrypted = cipher.doFinal(data);
-        byte[] result = new byte[iv.length + encrypted.length];
-        System.arraycopy(iv, 0, result, 0, iv.length);
-        System.arraycopy(encrypted, 0, result, iv.length, encrypted.length);
+        Primitivas p = PRIMITIVAS.get();
+        Cipher cipher = p.aes();
+        byte[] result = new byte[aesOutputSize(data.length)];
+        p.random.nextBytes(p.iv);
+        System.arraycopy(p.iv, 0, result, 0, GCM_IV_LENGTH);
 
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, p.iv));
+        int written = cipher.doFinal(data, 0, data.length, result, GCM_IV_LENGTH);
+        if (GCM_IV_LENGTH + written != result.length) {
+            throw new IllegalStateException("Tamanho inesperado do criptograma AES-GCM");
+        }
         return result;
     }
 
     public static byte[] decryptAES(byte[] encryptedData, SecretKey key) throws Exception {
-        Cipher cipher = Cipher.getInstance(AES_TRANSFORMATION);
+        Cipher cipher = PRIMITIVAS.get().aes();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, encryptedData, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(encryptedData, GCM_IV_LENGTH, encryptedData.length - GCM_IV_LENGTH);
+    }
 
-        byte[] iv = Arrays.copyOfRange(encryptedData, 0, 12);
-        byte[] cipherText = Arrays.copyOfRange(encryptedData, 12, encryptedData.length);
+    public static int encryptAES(ByteBuffer data, SecretKey key, ByteBuffer out) throws GeneralSecurityException {
+        return encryptAES(data, null, key, out);
+    }
 
-        GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+    public static int encryptAES(ByteBuffer data, ByteBuffer aad, SecretKey key, ByteBuffer out)
+            throws GeneralSecurityException {
+        int necessario = aesOutputSize(data.remaining());
+        if (out.remaining() < necessario) {
+            throw new ShortBufferException("São necessários " + necessario + " bytes, disponíveis " + out.remaining());
+        }
+        Primitivas p = PRIMITIVAS.get();
+        Cipher cipher = p.aes();
+        p.random.nextBytes(p.iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, p.iv));
+        if (aad != null) {
+            cipher.updateAAD(aad);
+        }
+        out.put(p.iv);
+        return GCM_IV_LENGTH + cipher.doFinal(data, out);
+    }
+
+    public static int decryptAES(ByteBuffer encryptedData, SecretKey key, ByteBuffer out)
+            throws GeneralSecurityException {
+        return decryptAES(encryptedData, null, key, out);
+    }
+
+    public static int decryptAES(ByteBuffer encryptedData, ByteBuffer aad, SecretKey key, ByteBuffer out)
+            throws GeneralSecurityException {
+        if (encryptedData.remaining() < GCM_IV_LENGTH + GCM_TAG_BYTES) {
+            throw new AEADBadTagException("Criptograma AES-GCM demasiado curto");
+        }
+        Primitivas p = PRIMITIVAS.get();
+        Cipher cipher = p.aes();
+        GCMParameterSpec spec;
+        // Com array de suporte o IV é lido no próprio buffer, sem o copiar.
+        if (encryptedData.hasArray()) {
+            spec = new GCMParameterSpec(GCM_TAG_LENGTH, encryptedData.array(),
+                    encryptedData.arrayOffset() + encryptedData.position(), GCM_IV_LENGTH);
+            encryptedData.position(encryptedData.position() + GCM_IV_LENGTH);
+        } else {
+            encryptedData.get(p.iv);
+            spec = new GCMParameterSpec(GCM_TAG_LENGTH, p.iv);
+        }
         cipher.init(Cipher.DECRYPT_MODE, key, spec);
+        if (aad != null) {
+            cipher.updateAAD(aad);
+        }
+        if (encryptedData.hasArray() && out.hasArray()) {
+            int escritos = cipher.doFinal(encryptedData.array(), encryptedData.arrayOffset() + encryptedData.position(),
+                    encryptedData.remaining(), out.array(), out.arrayOffset() + out.position());
+            encryptedData.position(encryptedData.limit());
+            out.position(out.position() + escritos);
+            return escritos;
+        }
+        return cipher.doFinal(encryptedData, out);
+    }
+
+    public static int aesOutputSize(int plaintextLength) {
+        return GCM_IV_LENGTH + plaintextLength + GCM_TAG_BYTES;
+    }
 
-        return cipher.doFinal(cipherText);
+    public static int aesPlaintextSize(int encryptedLength) {
+        return encryptedLength - GCM_IV_LENGTH - GCM_TAG_BYTES;
     }
 
     public static byte[] encryptRSA(byte[] data, PublicKey publicKey) throws Exception {
-        Cipher cipher = Cipher.getInstance(RSA_ALGORITHM);
+        Cipher cipher = PRIMITIVAS.get().rsa();
         cipher.init(Cipher.ENCRYPT_MODE, publicKey);
         return cipher.doFinal(data);
     }
 
     public static byte[] decryptRSA(byte[] data, PrivateKey privateKey) throws Exception {
-        Cipher cipher = Cipher.getInstance(RSA_ALGORITHM);
+        Cipher cipher = PRIMITIVAS.get().rsa();
         cipher.init(Cipher.DECRYPT_MODE, privateKey);
         return cipher.doFinal(data);
     }
-}
\ No newline at end of file
+
+    public static KeyPair generateX25519KeyPair() throws NoSuchAlgorithmException {
+        return PRIMITIVAS.get().x25519Generator().generateKeyPair();
+    }
+
+    public static byte[] encodeX25519PublicKey(PublicKey publicKey) throws InvalidKeyException {
+        if (!(publicKey instanceof XECPublicKey)) {
+            throw new InvalidKeyException("Chave X25519 esperada: " + publicKey.getAlgorithm());
+        }
+        // RFC 7748: coordenada u em little-endian com tamanho fixo.
+        byte[] bigEndian = ((XECPublicKey) publicKey).getU().toByteArray();
+        byte[] raw = new byte[X25519_KEY_LENGTH];
+        for (int i = 0; i < raw.length && i < bigEndian.length; i++) {
+            raw[i] = bigEndian[bigEndian.length - 1 - i];
+        }
+        return raw;
+    }
+
+    public static PublicKey decodeX25519PublicKey(byte[] raw) throws GeneralSecurityException {
+        if (raw.length != X25519_KEY_LENGTH) {
+            throw new InvalidKeyException("Chave X25519 com " + raw.length + " bytes");
+        }
+        byte[] bigEndian = new byte[X25519_KEY_LENGTH];
+        for (int i = 0; i < raw.length; i++) {
+            bigEndian[i] = raw[raw.length - 1 - i];
+        }
+        bigEndian[0] &= 0x7F;
+        BigInteger u = new BigInteger(1, bigEndian);
+        return PRIMITIVAS.get().x25519Factory().generatePublic(new XECPublicKeySpec(NamedParameterSpec.X25519, u));
+    }
+
+    public static byte[] x25519(PrivateKey privateKey, PublicKey publicKey) throws GeneralSecurityException {
+        KeyAgreement agreement = PRIMITIVAS.get().x25519Agreement();
+        agreement.init(privateKey);
+        agreement.doPhase(publicKey, true);
+        return agreement.generateSecret();
+    }
+
+    // HKDF (RFC 5869) com HMAC-SHA256.
+    public static byte[] hkdfSha256(byte[] salt, byte[] ikm, byte[] info, int length) throws GeneralSecurityException {
+        if (length <= 0 || length > 255 * HASH_LENGTH) {
+            throw new IllegalArgumentException("Tamanho HKDF inválido: " + length);
+        }
+        Mac mac = PRIMITIVAS.get().hmac();
+        mac.init(new SecretKeySpec(salt == null || salt.length == 0 ? new byte[HASH_LENGTH] : salt, HMAC_ALGORITHM));
+        byte[] prk = mac.doFinal(ikm);
+
+        mac.init(new SecretKeySpec(prk, HMAC_ALGORITHM));
+        byte[] okm = new byte[length];
+        byte[] bloco = new byte[0];
+        for (int i = 1, feito = 0; feito < length; i++) {
+            mac.update(bloco);
+            mac.update(info);
+            mac.update((byte) i);
+            bloco = mac.doFinal();
+            int n = Math.min(bloco.length, length - feito);
+            System.arraycopy(bloco, 0, okm, feito, n);
+            feito += n;
+        }
+        return okm;
+    }
+
+    public static byte[] sha256(byte[]... parts) throws NoSuchAlgorithmException {
+        MessageDigest digest = PRIMITIVAS.get().digest();
+        for (byte[] part : parts) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+
+    public static byte[] sha256(ByteBuffer... parts) throws NoSuchAlgorithmException {
+        MessageDigest digest = PRIMITIVAS.get().digest();
+        for (ByteBuffer part : parts) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+
+    public static byte[] signSHA256withRSA(byte[] data, PrivateKey privateKey) throws GeneralSecurityException {
+        Signature signature = PRIMITIVAS.get().signature();
+        signature.initSign(privateKey, PRIMITIVAS.get().random);
+        signature.update(data);
+        return signature.sign();
+    }
+
+    public static boolean verifySHA256withRSA(byte[] data, byte[] signatureBytes, PublicKey publicKey)
+            throws GeneralSecurityException {
+        Signature signature = PRIMITIVAS.get().signature();
+        signature.initVerify(publicKey);
+        signature.update(data);
+        return signature.verify(signatureBytes);
+    }
+
+    public static SecureRandom secureRandom() {
+        return PRIMITIVAS.get().random;
+    }
+
+    private static final class Primitivas {
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] iv = new byte[GCM_IV_LENGTH];
+        private Cipher aes;
+        private Cipher rsa;
+        private KeyGenerator keyGenerator;
+        private MessageDigest digest;
+        private Signature signature;
+        private KeyPairGenerator x25519Generator;
+        private KeyFactory x25519Factory;
+        private KeyAgreement x25519Agreement;
+        private Mac hmac;
+
+        Cipher aes() throws NoSuchAlgorithmException, NoSuchPaddingException {
+            if (aes == null) {
+                aes = Cipher.getInstance(AES_TRANSFORMATION);
+            }
+            return aes;
+        }
+
+        Cipher rsa() throws NoSuchAlgorithmException, NoSuchPaddingException {
+            if (rsa == null) {
+                rsa = Cipher.getInstance(RSA_ALGORITHM);
+            }
+            return rsa;
+        }
+
+        KeyGenerator keyGenerator() throws NoSuchAlgorithmException {
+            if (keyGenerator == null) {
+                keyGenerator = KeyGenerator.getInstance(AES_ALGORITHM);
+                keyGenerator.init(AES_KEY_SIZE, random);
+            }
+            return keyGenerator;
+        }
+
+        MessageDigest digest() throws NoSuchAlgorithmException {
+            if (digest == null) {
+                digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            }
+            return digest;
+        }
+
+        Signature signature() throws NoSuchAlgorithmException {
+            if (signature == null) {
+                signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+            }
+            return signature;
+        }
+
+        KeyPairGenerator x25519Generator() throws NoSuchAlgorithmException {
+            if (x25519Generator == null) {
+                x25519Generator = KeyPairGenerator.getInstance(X25519_ALGORITHM);
+                try {
+                    x25519Generator.initialize(NamedParameterSpec.X25519, random);
+                } catch (InvalidAlgorithmParameterException e) {
+                    throw new NoSuchAlgorithmException(e);
+                }
+            }
+            return x25519Generator;
+        }
+
+        KeyFactory x25519Factory() throws NoSuchAlgorithmException {
+            if (x25519Factory == null) {
+                x25519Factory = KeyFactory.getInstance(X25519_ALGORITHM);
+            }
+            return x25519Factory;
+        }
+
+        KeyAgreement x25519Agreement() throws NoSuchAlgorithmException {
+            if (x25519Agreement == null) {
+                x25519Agreement = KeyAgreement.getInstance(X25519_ALGORITHM);
+            }
+            return x25519Agreement;
+        }
+
+        Mac hmac() throws NoSuchAlgorithmException {
+            if (hmac == null) {
+                hmac = Mac.getInstance(HMAC_ALGORITHM);
+            }
+            return hmac;
+        }
+    }
+}
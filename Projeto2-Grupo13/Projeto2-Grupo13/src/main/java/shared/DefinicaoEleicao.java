@@ -0,0 +1,120 @@
+package shared;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+public class DefinicaoEleicao implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NAO_COMPACTO = -2;
+
+    private static final String RECURSO = "eleicao.properties";
+    private static final int MAX_CANDIDATOS = 0xFFFF;
+    // 0xFF nunca aparece em UTF-8, por isso não colide com votos em texto livre.
+    private static final byte MARCADOR = (byte) 0xFF;
+    private static final int TAMANHO_VOTO = 3;
+
+    private final String identificador;
+    private final List<String> candidatos;
+    private final Map<String, Integer> indices;
+    private final SuiteCifra suite;
+
+    public DefinicaoEleicao(String identificador, List<String> candidatos) {
+        this(identificador, candidatos, SuiteCifra.RSA);
+    }
+
+    public DefinicaoEleicao(String identificador, List<String> candidatos, SuiteCifra suite) {
+        if (candidatos.isEmpty() || candidatos.size() > MAX_CANDIDATOS) {
+            throw new IllegalArgumentException("Número de candidatos inválido: " + candidatos.size());
+        }
+        Map<String, Integer> porNome = new HashMap<>();
+        for (int i = 0; i < candidatos.size(); i++) {
+            if (porNome.putIfAbsent(candidatos.get(i), i) != null) {
+                throw new IllegalArgumentException("Candidato repetido: " + candidatos.get(i));
+            }
+        }
+        this.identificador = identificador;
+        this.candidatos = Collections.unmodifiableList(new ArrayList<>(candidatos));
+        this.indices = porNome;
+        this.suite = suite;
+    }
+
+    public static DefinicaoEleicao carregar() throws IOException {
+        try (InputStream is = DefinicaoEleicao.class.getClassLoader().getResourceAsStream(RECURSO)) {
+            if (is == null) {
+                throw new IOException("Definição da eleição não encontrada: " + RECURSO);
+            }
+            return carregar(is);
+        }
+    }
+
+    public static DefinicaoEleicao carregar(InputStream entrada) throws IOException {
+        Properties propriedades = new Properties();
+        propriedades.load(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String identificador = propriedades.getProperty("identificador");
+        String candidatos = propriedades.getProperty("candidatos");
+        if (identificador == null || candidatos == null) {
+            throw new IOException("Definição da eleição incompleta");
+        }
+        List<String> lista = new ArrayList<>();
+        for (String candidato : candidatos.split(",")) {
+            if (!candidato.trim().isEmpty()) {
+                lista.add(candidato.trim());
+            }
+        }
+        return new DefinicaoEleicao(identificador, lista,
+                SuiteCifra.porNome(propriedades.getProperty("suite", SuiteCifra.RSA.name())));
+    }
+
+    public byte[] codificarVoto(int escolha) {
+        if (!isEscolhaValida(escolha)) {
+            throw new IllegalArgumentException("Escolha inválida: " + escolha);
+        }
+        return new byte[]{MARCADOR, (byte) (escolha >>> 8), (byte) escolha};
+    }
+
+    public static int descodificarVoto(byte[] dados, int inicio, int tamanho) {
+        if (tamanho != TAMANHO_VOTO || dados[inicio] != MARCADOR) {
+            return NAO_COMPACTO;
+        }
+        return ((dados[inicio + 1] & 0xFF) << 8) | (dados[inicio + 2] & 0xFF);
+    }
+
+    public boolean isEscolhaValida(int escolha) {
+        return escolha >= 0 && escolha < candidatos.size();
+    }
+
+    public int indiceDe(String candidato) {
+        Integer indice = indices.get(candidato);
+        return indice == null ? -1 : indice;
+    }
+
+    public String getCandidato(int escolha) {
+        return candidatos.get(escolha);
+    }
+
+    public int getTotalCandidatos() {
+        return candidatos.size();
+    }
+
+    public List<String> getCandidatos() {
+        return candidatos;
+    }
+
+    public String getIdentificador() {
+        return identificador;
+    }
+
+    public SuiteCifra getSuite() {
+        return suite;
+    }
+}
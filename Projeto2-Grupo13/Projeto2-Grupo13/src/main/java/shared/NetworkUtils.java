@@ -27,9 +27,20 @@ public class NetworkUtils {
             Object obj = ois.readObject();
             logger.debug("Objeto recebido de {}", socket.getInetAddress());
             return obj;
+        } catch (EOFException e) {
+            logger.debug("Conexão terminada por {}", socket.getInetAddress());
+            throw e;
         } catch (Exception e) {
             logger.error("Erro ao receber objeto: {}", e.getMessage(), e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    public static byte[] serializar(Object object) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(object);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -1,6 +1,10 @@
 package shared;
 
-import java.io.*;
+import shared.exceptions.VotoInvalidoException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.security.*;
 import java.util.Arrays;
 
@@ -16,17 +20,14 @@ public class PacoteVoto implements Serializable {
         this.hash = calcularHash();
     }
 
-    private byte[] calcularHash() throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] dados = concatenarArrays(votoEncriptado, chaveEncriptada);
-        return digest.digest(dados);
+    PacoteVoto(byte[] votoEncriptado, byte[] chaveEncriptada, byte[] hash) {
+        this.votoEncriptado = votoEncriptado;
+        this.chaveEncriptada = chaveEncriptada;
+        this.hash = hash;
     }
 
-    private byte[] concatenarArrays(byte[] a, byte[] b) {
-        byte[] result = new byte[a.length + b.length];
-        System.arraycopy(a, 0, result, 0, a.length);
-        System.arraycopy(b, 0, result, a.length, b.length);
-        return result;
+    private byte[] calcularHash() throws NoSuchAlgorithmException {
+        return CryptoUtils.sha256(votoEncriptado, chaveEncriptada);
     }
 
     public boolean verificarIntegridade() throws NoSuchAlgorithmException {
@@ -35,18 +36,43 @@ public class PacoteVoto implements Serializable {
     }
 
     public byte[] toByteArray() throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ObjectOutputStream out = new ObjectOutputStream(bos);
-        out.writeObject(this);
-        return bos.toByteArray();
+        byte[] dados = new byte[getTamanhoCodificado()];
+        escrever(ByteBuffer.wrap(dados));
+        return dados;
+    }
+
+    public void escrever(ByteBuffer destino) throws IOException {
+        if (votoEncriptado.length < VistaVoto.TAMANHO_IV + VistaVoto.TAMANHO_TAG
+                || chaveEncriptada.length == 0 || chaveEncriptada.length > 0xFFFF
+                || hash.length != VistaVoto.TAMANHO_RESUMO) {
+            throw new IOException("Pacote de voto sem representação binária válida");
+        }
+        VistaVoto.escrever(destino, chaveEncriptada, votoEncriptado, hash);
+    }
+
+    public int getTamanhoCodificado() {
+        return VistaVoto.tamanhoCodificado(chaveEncriptada.length, votoEncriptado.length);
+    }
+
+    public static PacoteVoto fromByteArray(byte[] data) throws IOException {
+        return fromByteBuffer(ByteBuffer.wrap(data));
     }
 
-    public static PacoteVoto fromByteArray(byte[] data) throws IOException, ClassNotFoundException {
-        ByteArrayInputStream bis = new ByteArrayInputStream(data);
-        ObjectInputStream in = new ObjectInputStream(bis);
-        return (PacoteVoto) in.readObject();
+    public static PacoteVoto fromByteBuffer(ByteBuffer data) throws IOException {
+        VistaVoto vista;
+        try {
+            vista = new VistaVoto().envolver(data);
+        } catch (VotoInvalidoException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        byte[] votoEncriptado = new byte[vista.getTamanhoVotoEncriptado()];
+        byte[] hash = new byte[VistaVoto.TAMANHO_RESUMO];
+        vista.votoEncriptado().get(votoEncriptado);
+        vista.resumo().get(hash);
+        return new PacoteVoto(votoEncriptado, vista.copiarChaveEncriptada(), hash);
     }
 
     public byte[] getVotoEncriptado() { return votoEncriptado; }
     public byte[] getChaveEncriptada() { return chaveEncriptada; }
+    byte[] getHash() { return hash; }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package shared;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PedidoRegisto implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long idCorrelacao;
+    private final List<CertificadoEleitor> certificados;
+
+    public PedidoRegisto(long idCorrelacao, List<CertificadoEleitor> certificados) {
+        this.idCorrelacao = idCorrelacao;
+        this.certificados = new ArrayList<>(certificados);
+    }
+
+    public long getIdCorrelacao() { return idCorrelacao; }
+    public List<CertificadoEleitor> getCertificados() { return Collections.unmodifiableList(certificados); }
+}
@@ -0,0 +1,53 @@
+package shared;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Base64;
+
+public class RaizAssinada implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final byte[] DOMINIO = "evote/quadro-votos/v1".getBytes(StandardCharsets.US_ASCII);
+
+    private final long tamanho;
+    private final byte[] raiz;
+    private final byte[] assinatura;
+
+    private RaizAssinada(long tamanho, byte[] raiz, byte[] assinatura) {
+        this.tamanho = tamanho;
+        this.raiz = raiz;
+        this.assinatura = assinatura;
+    }
+
+    public static RaizAssinada assinar(long tamanho, byte[] raiz, PrivateKey chavePrivada)
+            throws GeneralSecurityException {
+        return new RaizAssinada(tamanho, raiz.clone(), CryptoUtils.signSHA256withRSA(dados(tamanho, raiz), chavePrivada));
+    }
+
+    public boolean verificarAssinatura(PublicKey chavePublica) {
+        if (chavePublica == null) {
+            return false;
+        }
+        try {
+            return CryptoUtils.verifySHA256withRSA(dados(tamanho, raiz), assinatura, chavePublica);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static byte[] dados(long tamanho, byte[] raiz) {
+        return ByteBuffer.allocate(DOMINIO.length + 8 + raiz.length).put(DOMINIO).putLong(tamanho).put(raiz).array();
+    }
+
+    public long getTamanho() { return tamanho; }
+    public byte[] getRaiz() { return raiz.clone(); }
+    public byte[] getAssinatura() { return assinatura.clone(); }
+
+    @Override
+    public String toString() {
+        return tamanho + " votos, raiz " + Base64.getEncoder().encodeToString(raiz);
+    }
+}
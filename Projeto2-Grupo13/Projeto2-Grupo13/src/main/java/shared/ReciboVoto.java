@@ -0,0 +1,37 @@
+package shared;
+
+import java.io.Serializable;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ReciboVoto implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long indice;
+    private final long tamanho;
+    private final List<byte[]> caminho;
+
+    public ReciboVoto(long indice, long tamanho, List<byte[]> caminho) {
+        this.indice = indice;
+        this.tamanho = tamanho;
+        this.caminho = Collections.unmodifiableList(new ArrayList<>(caminho));
+    }
+
+    public boolean verificar(byte[] voto, RaizAssinada raiz, PublicKey chaveUrna) {
+        if (raiz.getTamanho() != tamanho || !raiz.verificarAssinatura(chaveUrna)) {
+            return false;
+        }
+        try {
+            return ArvoreMerkle.verificarInclusao(ArvoreMerkle.hashFolha(voto), indice, tamanho, caminho, raiz.getRaiz());
+        } catch (NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
+    public long getIndice() { return indice; }
+    public long getTamanho() { return tamanho; }
+    public List<byte[]> getCaminho() { return caminho; }
+}
@@ -0,0 +1,176 @@
+package shared;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pares de chaves gerados em segundo plano para que obter() não pague a geração.
+// Cada par é entregue uma única vez; abaixo da marca de reposição a reserva volta
+// a encher até à capacidade. Se estiver vazia, obter() gera o par na própria thread.
+public class ReservaChaves implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ReservaChaves.class);
+
+    public enum Algoritmo {
+        RSA {
+            @Override
+            KeyPairGenerator novoGerador() throws GeneralSecurityException {
+                KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+                keyGen.initialize(2048, CryptoUtils.secureRandom());
+                return keyGen;
+            }
+        },
+        // P-256: chaves mais pequenas e geração muito mais barata do que RSA-2048.
+        EC {
+            @Override
+            KeyPairGenerator novoGerador() throws GeneralSecurityException {
+                KeyPairGenerator keyGen = KeyPairGenerator.getInstance("EC");
+                keyGen.initialize(new ECGenParameterSpec("secp256r1"), CryptoUtils.secureRandom());
+                return keyGen;
+            }
+        };
+
+        abstract KeyPairGenerator novoGerador() throws GeneralSecurityException;
+
+        public KeyPair gerar() throws GeneralSecurityException {
+            return novoGerador().generateKeyPair();
+        }
+
+        public static Algoritmo porNome(String nome) {
+            for (Algoritmo algoritmo : values()) {
+                if (algoritmo.name().equalsIgnoreCase(nome.trim())) {
+                    return algoritmo;
+                }
+            }
+            throw new IllegalArgumentException("Algoritmo de chaves desconhecido: " + nome);
+        }
+    }
+
+    private final Algoritmo algoritmo;
+    private final int capacidade;
+    private final int marcaReposicao;
+    private final BlockingQueue<KeyPair> reserva;
+    private final ThreadPoolExecutor geradores;
+    private final ThreadLocal<KeyPairGenerator> gerador;
+    private final AtomicInteger emCurso = new AtomicInteger();
+    private final LongAdder entregues = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private volatile boolean ativa = true;
+
+    public ReservaChaves(Algoritmo algoritmo, int capacidade) {
+        this(algoritmo, capacidade, capacidade / 2, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public ReservaChaves(Algoritmo algoritmo, int capacidade, int marcaReposicao, int threads) {
+        if (capacidade <= 0 || marcaReposicao < 0 || marcaReposicao >= capacidade || threads <= 0) {
+            throw new IllegalArgumentException("Parâmetros de reserva inválidos");
+        }
+        this.algoritmo = algoritmo;
+        this.capacidade = capacidade;
+        this.marcaReposicao = marcaReposicao;
+        this.reserva = new ArrayBlockingQueue<>(capacidade);
+        this.gerador = ThreadLocal.withInitial(() -> {
+            try {
+                return algoritmo.novoGerador();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        AtomicInteger contador = new AtomicInteger();
+        this.geradores = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "reserva-chaves-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    // A geração nunca deve competir com quem está à espera de uma chave.
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+        geradores.allowCoreThreadTimeOut(true);
+
+        encher();
+        logger.info("Reserva de chaves {} iniciada (capacidade={}, reposição abaixo de {}, {} threads)",
+                algoritmo, capacidade, marcaReposicao, threads);
+    }
+
+    public KeyPair obter() throws GeneralSecurityException {
+        KeyPair par = reserva.poll();
+        if (par == null) {
+            faltas.increment();
+            par = algoritmo.gerar();
+        }
+        entregues.increment();
+        if (reserva.size() <= marcaReposicao) {
+            encher();
+        }
+        return par;
+    }
+
+    private void encher() {
+        while (ativa) {
+            int pedidos = emCurso.get();
+            if (reserva.size() + pedidos >= capacidade) {
+                return;
+            }
+            if (emCurso.compareAndSet(pedidos, pedidos + 1)) {
+                geradores.execute(this::gerarUm);
+            }
+        }
+    }
+
+    private void gerarUm() {
+        try {
+            if (ativa) {
+                reserva.offer(gerador.get().generateKeyPair());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Falha ao gerar par de chaves {}: {}", algoritmo, e.getMessage(), e);
+        } finally {
+            emCurso.decrementAndGet();
+        }
+    }
+
+    public boolean aguardarCheia(long timeout, TimeUnit unidade) throws InterruptedException {
+        long limite = System.nanoTime() + unidade.toNanos(timeout);
+        while (reserva.size() < capacidade) {
+            if (System.nanoTime() >= limite) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        ativa = false;
+        geradores.shutdownNow();
+        reserva.clear();
+    }
+
+    public Algoritmo getAlgoritmo() {
+        return algoritmo;
+    }
+
+    public int getDisponiveis() {
+        return reserva.size();
+    }
+
+    public long getEntregues() {
+        return entregues.sum();
+    }
+
+    public long getFaltas() {
+        return faltas.sum();
+    }
+}
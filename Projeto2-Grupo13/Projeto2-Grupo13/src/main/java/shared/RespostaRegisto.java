@@ -0,0 +1,28 @@
+package shared;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RespostaRegisto implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long idCorrelacao;
+    private final List<CertificadoEleitor> certificados;
+    private final List<String> erros;
+
+    public RespostaRegisto(long idCorrelacao, List<CertificadoEleitor> certificados, List<String> erros) {
+        this.idCorrelacao = idCorrelacao;
+        this.certificados = new ArrayList<>(certificados);
+        this.erros = new ArrayList<>(erros);
+    }
+
+    public boolean isSucesso(int indice) {
+        return erros.get(indice) == null;
+    }
+
+    public long getIdCorrelacao() { return idCorrelacao; }
+    public List<CertificadoEleitor> getCertificados() { return Collections.unmodifiableList(certificados); }
+    public List<String> getErros() { return Collections.unmodifiableList(erros); }
+}
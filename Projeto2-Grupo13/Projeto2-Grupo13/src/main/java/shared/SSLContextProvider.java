@@ -0,0 +1,129 @@
+package shared;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public final class SSLContextProvider {
+    private static final Logger logger = LogManager.getLogger(SSLContextProvider.class);
+
+    private static final int SESSION_CACHE_SIZE = 20000;
+    private static final int SESSION_TIMEOUT_SECONDS = 3600;
+    private static final long RELOAD_CHECK_INTERVAL_MS = 5000;
+
+    private static final SSLContextProvider INSTANCE = new SSLContextProvider();
+
+    private final Path ficheiroKeystore;
+    private final long intervaloVerificacaoMs;
+    private volatile SSLContext contexto;
+    private volatile long versaoKeystore;
+    private volatile long proximaVerificacao;
+
+    private SSLContextProvider() {
+        this(localizarKeystore(), RELOAD_CHECK_INTERVAL_MS);
+    }
+
+    SSLContextProvider(Path ficheiroKeystore, long intervaloVerificacaoMs) {
+        this.ficheiroKeystore = ficheiroKeystore;
+        this.intervaloVerificacaoMs = intervaloVerificacaoMs;
+    }
+
+    public static SSLContextProvider getInstance() {
+        return INSTANCE;
+    }
+
+    public SSLContext getContexto() throws Exception {
+        SSLContext atual = contexto;
+        if (atual != null && !keystoreAlterada()) {
+            return atual;
+        }
+        synchronized (this) {
+            // keystoreAlterada() já avançou o intervalo; aqui compara-se só a versão.
+            if (contexto == null || lerVersaoKeystore() != versaoKeystore) {
+                recarregar();
+            }
+            return contexto;
+        }
+    }
+
+    public synchronized void recarregar() throws Exception {
+        long versao = lerVersaoKeystore();
+        SSLContext novo;
+        try (InputStream is = abrirKeystore()) {
+            novo = SSLUtils.criarContextoSSL(is);
+        }
+        configurarCacheSessoes(novo.getClientSessionContext());
+        configurarCacheSessoes(novo.getServerSessionContext());
+
+        boolean recarga = contexto != null;
+        contexto = novo;
+        versaoKeystore = versao;
+        proximaVerificacao = System.currentTimeMillis() + intervaloVerificacaoMs;
+
+        if (recarga) {
+            logger.info("Contexto SSL recarregado após alteração da keystore");
+        } else {
+            logger.info("Contexto SSL inicializado");
+        }
+    }
+
+    private boolean keystoreAlterada() {
+        if (ficheiroKeystore == null) {
+            return false;
+        }
+        long agora = System.currentTimeMillis();
+        if (agora < proximaVerificacao) {
+            return false;
+        }
+        proximaVerificacao = agora + intervaloVerificacaoMs;
+        try {
+            return lerVersaoKeystore() != versaoKeystore;
+        } catch (IOException e) {
+            logger.warn("Não foi possível verificar a keystore: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private long lerVersaoKeystore() throws IOException {
+        return ficheiroKeystore != null ? Files.getLastModifiedTime(ficheiroKeystore).toMillis() : 0L;
+    }
+
+    private InputStream abrirKeystore() throws IOException {
+        if (ficheiroKeystore != null) {
+            return Files.newInputStream(ficheiroKeystore);
+        }
+        InputStream is = SSLUtils.class.getClassLoader().getResourceAsStream(SSLUtils.KEYSTORE_RESOURCE);
+        if (is == null) {
+            throw new IOException("Keystore não encontrada: " + SSLUtils.KEYSTORE_RESOURCE);
+        }
+        return is;
+    }
+
+    private static void configurarCacheSessoes(SSLSessionContext sessoes) {
+        if (sessoes != null) {
+            sessoes.setSessionCacheSize(SESSION_CACHE_SIZE);
+            sessoes.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+        }
+    }
+
+    private static Path localizarKeystore() {
+        URL url = SSLUtils.class.getClassLoader().getResource(SSLUtils.KEYSTORE_RESOURCE);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -5,15 +5,22 @@ import java.io.InputStream;
 import java.security.KeyStore;
 
 public class SSLUtils {
+    static final String KEYSTORE_RESOURCE = "certificates/keystore.p12";
+    private static final char[] KEYSTORE_PASSWORD = "password".toCharArray();
+
     public static SSLContext criarContextoSSL() throws Exception {
-        KeyStore ks = KeyStore.getInstance("PKCS12");
         try (InputStream is = SSLUtils.class.getClassLoader()
-                .getResourceAsStream("certificates/keystore.p12")) {
-            ks.load(is, "password".toCharArray());
+                .getResourceAsStream(KEYSTORE_RESOURCE)) {
+            return criarContextoSSL(is);
         }
+    }
+
+    static SSLContext criarContextoSSL(InputStream keystore) throws Exception {
+        KeyStore ks = KeyStore.getInstance("PKCS12");
+        ks.load(keystore, KEYSTORE_PASSWORD);
 
         KeyManagerFactory kmf = KeyManagerFactory.getInstance("SunX509");
-        kmf.init(ks, "password".toCharArray());
+        kmf.init(ks, KEYSTORE_PASSWORD);
 
         TrustManagerFactory tmf = TrustManagerFactory.getInstance("SunX509");
         tmf.init(ks);
@@ -23,10 +30,20 @@ public class SSLUtils {
         return sslContext;
     }
 
+    public static SSLContext obterContextoSSL() throws Exception {
+        return SSLContextProvider.getInstance().getContexto();
+    }
+
+    public static SSLSocket criarSocketCliente(String host, int porta) throws Exception {
+        SSLSocket socket = (SSLSocket) obterContextoSSL().getSocketFactory().createSocket(host, porta);
+        socket.setTcpNoDelay(true);
+        return socket;
+    }
+
     public static SSLServerSocket criarSocketServidor(int porta) throws Exception {
-        SSLContext sslContext = criarContextoSSL();
+        SSLContext sslContext = obterContextoSSL();
         SSLServerSocketFactory ssf = sslContext.getServerSocketFactory();
         SSLServerSocket serverSocket = (SSLServerSocket) ssf.createServerSocket(porta);
         return serverSocket;
     }
-}
\ No newline at end of file
+}
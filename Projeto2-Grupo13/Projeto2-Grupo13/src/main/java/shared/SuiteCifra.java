@@ -0,0 +1,125 @@
+package shared;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.interfaces.XECPublicKey;
+import java.security.spec.NamedParameterSpec;
+
+public enum SuiteCifra {
+    RSA {
+        @Override
+        public KeyPair gerarParChaves() throws GeneralSecurityException {
+            KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+            keyGen.initialize(2048);
+            return keyGen.generateKeyPair();
+        }
+
+        @Override
+        public Encapsulamento encapsular(PublicKey destinatario) throws GeneralSecurityException {
+            SecretKey chave = CryptoUtils.generateAESKey();
+            return new Encapsulamento(chave, cifrarRSA(chave.getEncoded(), destinatario));
+        }
+
+        @Override
+        public SecretKey desencapsular(byte[] encapsulada, PrivateKey privada) throws GeneralSecurityException {
+            return new SecretKeySpec(decifrarRSA(encapsulada, privada), "AES");
+        }
+    },
+
+    // ECDH efémero X25519 com a chave da AA; a chave AES sai do HKDF e o
+    // encapsulamento é só a chave pública efémera (32 bytes).
+    X25519 {
+        @Override
+        public KeyPair gerarParChaves() throws GeneralSecurityException {
+            return CryptoUtils.generateX25519KeyPair();
+        }
+
+        @Override
+        public Encapsulamento encapsular(PublicKey destinatario) throws GeneralSecurityException {
+            KeyPair efemero = CryptoUtils.generateX25519KeyPair();
+            byte[] encapsulada = CryptoUtils.encodeX25519PublicKey(efemero.getPublic());
+            byte[] partilhado = CryptoUtils.x25519(efemero.getPrivate(), destinatario);
+            return new Encapsulamento(derivar(partilhado, encapsulada), encapsulada);
+        }
+
+        @Override
+        public SecretKey desencapsular(byte[] encapsulada, PrivateKey privada) throws GeneralSecurityException {
+            PublicKey efemera = CryptoUtils.decodeX25519PublicKey(encapsulada);
+            return derivar(CryptoUtils.x25519(privada, efemera), encapsulada);
+        }
+
+        private SecretKey derivar(byte[] partilhado, byte[] encapsulada) throws GeneralSecurityException {
+            return new SecretKeySpec(CryptoUtils.hkdfSha256(encapsulada, partilhado, INFO_X25519, 32), "AES");
+        }
+    };
+
+    private static final byte[] INFO_X25519 = "evote/x25519-hkdf-sha256/aes-256-gcm".getBytes(StandardCharsets.US_ASCII);
+
+    public abstract KeyPair gerarParChaves() throws GeneralSecurityException;
+
+    public abstract Encapsulamento encapsular(PublicKey destinatario) throws GeneralSecurityException;
+
+    public abstract SecretKey desencapsular(byte[] encapsulada, PrivateKey privada) throws GeneralSecurityException;
+
+    public static SuiteCifra porNome(String nome) {
+        for (SuiteCifra suite : values()) {
+            if (suite.name().equalsIgnoreCase(nome.trim())) {
+                return suite;
+            }
+        }
+        throw new IllegalArgumentException("Suite de cifra desconhecida: " + nome);
+    }
+
+    public static SuiteCifra daChave(PublicKey chave) {
+        if (chave instanceof RSAPublicKey) {
+            return RSA;
+        }
+        if (chave instanceof XECPublicKey && ((XECPublicKey) chave).getParams() instanceof NamedParameterSpec
+                && NamedParameterSpec.X25519.getName().equalsIgnoreCase(
+                        ((NamedParameterSpec) ((XECPublicKey) chave).getParams()).getName())) {
+            return X25519;
+        }
+        throw new IllegalArgumentException("Chave sem suite de cifra correspondente: "
+                + (chave != null ? chave.getAlgorithm() : null));
+    }
+
+    private static byte[] cifrarRSA(byte[] dados, PublicKey destinatario) throws GeneralSecurityException {
+        try {
+            return CryptoUtils.encryptRSA(dados, destinatario);
+        } catch (GeneralSecurityException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralSecurityException(e);
+        }
+    }
+
+    private static byte[] decifrarRSA(byte[] dados, PrivateKey privada) throws GeneralSecurityException {
+        try {
+            return CryptoUtils.decryptRSA(dados, privada);
+        } catch (GeneralSecurityException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralSecurityException(e);
+        }
+    }
+
+    public static final class Encapsulamento {
+        private final SecretKey chave;
+        private final byte[] encapsulada;
+
+        Encapsulamento(SecretKey chave, byte[] encapsulada) {
+            this.chave = chave;
+            this.encapsulada = encapsulada;
+        }
+
+        public SecretKey getChave() { return chave; }
+        public byte[] getEncapsulada() { return encapsulada; }
+    }
+}
@@ -0,0 +1,118 @@
+package shared;
+
+import shared.exceptions.VotoInvalidoException;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+
+// Leitura de um boletim no formato binário sem copiar os campos:
+//
+//   0  u8   versão
+//   1  u8   tamanho do IV
+//   2  u16  tamanho da chave encapsulada
+//   4  i32  tamanho do criptograma (inclui a tag GCM)
+//   8  u8   tamanho do resumo
+//   9  u8   reservado (0)
+//  10  chave | IV | criptograma | resumo
+//
+// IV e criptograma ficam contíguos, no formato esperado por CryptoUtils.decryptAES.
+// A mesma instância pode ser reutilizada com envolver() para vários boletins.
+public final class VistaVoto {
+    public static final byte VERSAO = 1;
+    public static final int TAMANHO_CABECALHO = 10;
+    static final int TAMANHO_IV = 12;
+    static final int TAMANHO_TAG = 16;
+    static final int TAMANHO_RESUMO = 32;
+
+    private ByteBuffer dados;
+    private int inicioChave;
+    private int tamanhoChave;
+    private int inicioVoto;
+    private int tamanhoVoto;
+    private int inicioResumo;
+
+    public VistaVoto envolver(ByteBuffer voto) throws VotoInvalidoException {
+        int inicio = voto.position();
+        verificarFormato(voto, inicio, voto.remaining());
+        this.dados = voto;
+        this.tamanhoChave = voto.getShort(inicio + 2) & 0xFFFF;
+        this.inicioChave = inicio + TAMANHO_CABECALHO;
+        this.inicioVoto = inicioChave + tamanhoChave;
+        this.tamanhoVoto = TAMANHO_IV + voto.getInt(inicio + 4);
+        this.inicioResumo = inicioVoto + tamanhoVoto;
+        return this;
+    }
+
+    public static void verificarFormato(ByteBuffer voto, int inicio, int tamanho) throws VotoInvalidoException {
+        if (tamanho < TAMANHO_CABECALHO) {
+            throw new VotoInvalidoException("Boletim truncado: " + tamanho + " bytes");
+        }
+        if (voto.get(inicio) != VERSAO) {
+            throw new VotoInvalidoException("Versão de boletim não suportada: " + (voto.get(inicio) & 0xFF));
+        }
+        if ((voto.get(inicio + 1) & 0xFF) != TAMANHO_IV || (voto.get(inicio + 8) & 0xFF) != TAMANHO_RESUMO
+                || voto.get(inicio + 9) != 0) {
+            throw new VotoInvalidoException("Cabeçalho de boletim inválido");
+        }
+        int tamanhoChave = voto.getShort(inicio + 2) & 0xFFFF;
+        int tamanhoCifrado = voto.getInt(inicio + 4);
+        if (tamanhoChave == 0 || tamanhoCifrado < TAMANHO_TAG) {
+            throw new VotoInvalidoException("Campos de boletim vazios");
+        }
+        long esperado = (long) TAMANHO_CABECALHO + tamanhoChave + TAMANHO_IV + tamanhoCifrado + TAMANHO_RESUMO;
+        if (esperado != tamanho) {
+            throw new VotoInvalidoException("Tamanho de boletim inconsistente: " + tamanho + " != " + esperado);
+        }
+    }
+
+    public static int tamanhoCodificado(int tamanhoChave, int tamanhoVotoEncriptado) {
+        return TAMANHO_CABECALHO + tamanhoChave + tamanhoVotoEncriptado + TAMANHO_RESUMO;
+    }
+
+    static void escrever(ByteBuffer destino, byte[] chaveEncriptada, byte[] votoEncriptado, byte[] resumo) {
+        destino.put(VERSAO)
+                .put((byte) TAMANHO_IV)
+                .putShort((short) chaveEncriptada.length)
+                .putInt(votoEncriptado.length - TAMANHO_IV)
+                .put((byte) resumo.length)
+                .put((byte) 0)
+                .put(chaveEncriptada)
+                .put(votoEncriptado)
+                .put(resumo);
+    }
+
+    public ByteBuffer chaveEncriptada() {
+        return dados.slice(inicioChave, tamanhoChave);
+    }
+
+    public ByteBuffer votoEncriptado() {
+        return dados.slice(inicioVoto, tamanhoVoto);
+    }
+
+    public ByteBuffer resumo() {
+        return dados.slice(inicioResumo, TAMANHO_RESUMO);
+    }
+
+    public byte[] copiarChaveEncriptada() {
+        byte[] chave = new byte[tamanhoChave];
+        dados.get(inicioChave, chave);
+        return chave;
+    }
+
+    public int getTamanhoChave() {
+        return tamanhoChave;
+    }
+
+    public int getTamanhoVotoEncriptado() {
+        return tamanhoVoto;
+    }
+
+    public boolean verificarIntegridade() throws NoSuchAlgorithmException {
+        byte[] calculado = CryptoUtils.sha256(votoEncriptado(), chaveEncriptada());
+        int diferenca = 0;
+        for (int i = 0; i < TAMANHO_RESUMO; i++) {
+            diferenca |= calculado[i] ^ dados.get(inicioResumo + i);
+        }
+        return diferenca == 0;
+    }
+}
@@ -0,0 +1,9 @@
+package shared.exceptions;
+
+public class QuadroVotosInvalidoException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public QuadroVotosInvalidoException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package sv;
+
+import java.util.UUID;
+
+public interface ArmazemTokens {
+    long EXPIRACAO_INVALIDA = -1L;
+
+    boolean adicionar(UUID token);
+
+    default boolean consumir(UUID token) {
+        return gastar(token) != EXPIRACAO_INVALIDA;
+    }
+
+    // Consome o token e devolve a sua expiração (ms), ou EXPIRACAO_INVALIDA se não estava pendente ou expirou.
+    long gastar(UUID token);
+
+    // Repõe um token gasto com a expiração original; não conta como emissão nem respeita o limite de pendentes.
+    boolean repor(UUID token, long expiracao);
+
+    void limparExpirados();
+
+    int getPendentes();
+
+    long getEmitidos();
+
+    long getGastos();
+
+    long getExpirados();
+
+    long getRejeitados();
+}
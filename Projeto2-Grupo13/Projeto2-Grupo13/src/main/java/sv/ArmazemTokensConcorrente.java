@@ -0,0 +1,141 @@
+package sv;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ArmazemTokensConcorrente implements ArmazemTokens {
+    private static final int FAIXAS = 16;
+    private static final long INTERVALO_LIMPEZA_MS = 1000;
+
+    private final List<ConcurrentHashMap<UUID, Long>> faixas;
+    private final long validadeMs;
+    private final int capacidadeMaxima;
+    private final AtomicInteger pendentes = new AtomicInteger();
+    private final AtomicInteger proximaFaixa = new AtomicInteger();
+    private final AtomicLong proximaLimpeza = new AtomicLong();
+    private final LongAdder emitidos = new LongAdder();
+    private final LongAdder gastos = new LongAdder();
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder rejeitados = new LongAdder();
+
+    public ArmazemTokensConcorrente(long validadeMs, int capacidadeMaxima) {
+        this.validadeMs = validadeMs;
+        this.capacidadeMaxima = capacidadeMaxima;
+        List<ConcurrentHashMap<UUID, Long>> mapas = new ArrayList<>(FAIXAS);
+        for (int i = 0; i < FAIXAS; i++) {
+            mapas.add(new ConcurrentHashMap<>());
+        }
+        this.faixas = List.copyOf(mapas);
+    }
+
+    @Override
+    public boolean adicionar(UUID token) {
+        long agora = System.currentTimeMillis();
+        limparAmortizado(agora);
+
+        if (pendentes.incrementAndGet() > capacidadeMaxima) {
+            pendentes.decrementAndGet();
+            limparExpirados();
+            if (pendentes.incrementAndGet() > capacidadeMaxima) {
+                pendentes.decrementAndGet();
+                rejeitados.increment();
+                return false;
+            }
+        }
+
+        faixa(token).put(token, agora + validadeMs);
+        emitidos.increment();
+        return true;
+    }
+
+    @Override
+    public long gastar(UUID token) {
+        long agora = System.currentTimeMillis();
+        limparAmortizado(agora);
+
+        Long expiracao = faixa(token).remove(token);
+        if (expiracao == null) {
+            return EXPIRACAO_INVALIDA;
+        }
+        pendentes.decrementAndGet();
+        if (expiracao < agora) {
+            expirados.increment();
+            return EXPIRACAO_INVALIDA;
+        }
+        gastos.increment();
+        return expiracao;
+    }
+
+    @Override
+    public boolean repor(UUID token, long expiracao) {
+        if (faixa(token).putIfAbsent(token, expiracao) != null) {
+            return false;
+        }
+        pendentes.incrementAndGet();
+        gastos.decrement();
+        return true;
+    }
+
+    @Override
+    public void limparExpirados() {
+        long agora = System.currentTimeMillis();
+        for (ConcurrentHashMap<UUID, Long> faixa : faixas) {
+            limpar(faixa, agora);
+        }
+    }
+
+    private void limparAmortizado(long agora) {
+        long limite = proximaLimpeza.get();
+        if (agora >= limite && proximaLimpeza.compareAndSet(limite, agora + INTERVALO_LIMPEZA_MS)) {
+            limpar(faixas.get(Math.floorMod(proximaFaixa.getAndIncrement(), FAIXAS)), agora);
+        }
+    }
+
+    private void limpar(ConcurrentHashMap<UUID, Long> faixa, long agora) {
+        Iterator<Map.Entry<UUID, Long>> it = faixa.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, Long> entrada = it.next();
+            if (entrada.getValue() < agora && faixa.remove(entrada.getKey(), entrada.getValue())) {
+                pendentes.decrementAndGet();
+                expirados.increment();
+            }
+        }
+    }
+
+    private ConcurrentHashMap<UUID, Long> faixa(UUID token) {
+        long h = token.getLeastSignificantBits() ^ token.getMostSignificantBits();
+        return faixas.get((int) (h ^ (h >>> 32)) & (FAIXAS - 1));
+    }
+
+    @Override
+    public int getPendentes() {
+        return pendentes.get();
+    }
+
+    @Override
+    public long getEmitidos() {
+        return emitidos.sum();
+    }
+
+    @Override
+    public long getGastos() {
+        return gastos.sum();
+    }
+
+    @Override
+    public long getExpirados() {
+        return expirados.sum();
+    }
+
+    @Override
+    public long getRejeitados() {
+        return rejeitados.sum();
+    }
+}
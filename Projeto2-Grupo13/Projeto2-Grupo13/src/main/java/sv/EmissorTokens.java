@@ -0,0 +1,7 @@
+package sv;
+
+import java.util.UUID;
+
+public interface EmissorTokens {
+    UUID emitirToken();
+}
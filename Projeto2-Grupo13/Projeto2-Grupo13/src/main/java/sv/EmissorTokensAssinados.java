@@ -0,0 +1,52 @@
+package sv;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EmissorTokensAssinados implements EmissorTokens {
+    private static final Duration VALIDADE_TOKEN = Duration.ofMinutes(15);
+    private static final int MAX_TOKENS = 1000000;
+
+    private final FormatoTokenAssinado formato;
+    private final long validadeSegundos;
+    private final int capacidade;
+    private final AtomicInteger proximaSequencia;
+
+    public EmissorTokensAssinados(SecretKey chave) {
+        this(chave, VALIDADE_TOKEN, 0, MAX_TOKENS);
+    }
+
+    public EmissorTokensAssinados(SecretKey chave, Duration validade, int primeiraSequencia, int capacidade) {
+        if (primeiraSequencia < 0 || capacidade < 0) {
+            throw new IllegalArgumentException("Intervalo de sequência inválido");
+        }
+        this.formato = new FormatoTokenAssinado(chave);
+        this.validadeSegundos = validade.getSeconds();
+        this.capacidade = capacidade;
+        this.proximaSequencia = new AtomicInteger(primeiraSequencia);
+    }
+
+    public static SecretKey gerarChave() throws NoSuchAlgorithmException {
+        return KeyGenerator.getInstance(FormatoTokenAssinado.ALGORITMO_MAC).generateKey();
+    }
+
+    @Override
+    public UUID emitirToken() {
+        int sequencia = proximaSequencia.getAndIncrement();
+        if (sequencia < 0 || sequencia >= capacidade) {
+            proximaSequencia.decrementAndGet();
+            throw new IllegalStateException("Limite de tokens atingido");
+        }
+        long expira = System.currentTimeMillis() / 1000 + validadeSegundos;
+        long cabecalho = FormatoTokenAssinado.cabecalho(sequencia, expira);
+        return new UUID(cabecalho, formato.mac(cabecalho));
+    }
+
+    public int getTokensEmitidos() {
+        return Math.min(proximaSequencia.get(), capacidade);
+    }
+}
@@ -0,0 +1,84 @@
+package sv;
+
+import javax.crypto.SecretKey;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+final class FormatoTokenAssinado {
+    static final String ALGORITMO_MAC = "HmacSHA256";
+
+    private static final String ALGORITMO_RESUMO = "SHA-256";
+    private static final int TAMANHO_BLOCO = 64;
+    private static final int TAMANHO_RESUMO = 32;
+
+    private final byte[] blocoInterno = new byte[TAMANHO_BLOCO];
+    private final byte[] blocoExterno = new byte[TAMANHO_BLOCO];
+    private final ThreadLocal<Calculadora> calculadoras = ThreadLocal.withInitial(Calculadora::new);
+
+    FormatoTokenAssinado(SecretKey chave) {
+        byte[] bytesChave = chave.getEncoded();
+        if (bytesChave.length > TAMANHO_BLOCO) {
+            bytesChave = novoResumo().digest(bytesChave);
+        }
+        for (int i = 0; i < TAMANHO_BLOCO; i++) {
+            byte b = i < bytesChave.length ? bytesChave[i] : 0;
+            blocoInterno[i] = (byte) (b ^ 0x36);
+            blocoExterno[i] = (byte) (b ^ 0x5c);
+        }
+    }
+
+    static long cabecalho(int sequencia, long expiraSegundos) {
+        return ((long) sequencia << 32) | (expiraSegundos & 0xFFFFFFFFL);
+    }
+
+    static int sequencia(long cabecalho) {
+        return (int) (cabecalho >>> 32);
+    }
+
+    static long expiraSegundos(long cabecalho) {
+        return cabecalho & 0xFFFFFFFFL;
+    }
+
+    // HMAC-SHA256 calculado à mão sobre buffers por thread: Mac.doFinal
+    // aloca um array por chamada e a validação na urna deve ser sem alocações.
+    long mac(long cabecalho) {
+        Calculadora calculadora = calculadoras.get();
+        MessageDigest resumo = calculadora.resumo;
+        byte[] entrada = calculadora.entrada;
+        byte[] intermedio = calculadora.intermedio;
+        for (int i = 7; i >= 0; i--) {
+            entrada[i] = (byte) cabecalho;
+            cabecalho >>>= 8;
+        }
+        try {
+            resumo.update(blocoInterno);
+            resumo.update(entrada);
+            resumo.digest(intermedio, 0, TAMANHO_RESUMO);
+            resumo.update(blocoExterno);
+            resumo.update(intermedio);
+            resumo.digest(intermedio, 0, TAMANHO_RESUMO);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Falha ao calcular MAC do token", e);
+        }
+        long resultado = 0;
+        for (int i = 0; i < 8; i++) {
+            resultado = (resultado << 8) | (intermedio[i] & 0xFF);
+        }
+        return resultado;
+    }
+
+    private static MessageDigest novoResumo() {
+        try {
+            return MessageDigest.getInstance(ALGORITMO_RESUMO);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algoritmo indisponível: " + ALGORITMO_RESUMO, e);
+        }
+    }
+
+    private static final class Calculadora {
+        private final MessageDigest resumo = novoResumo();
+        private final byte[] entrada = new byte[8];
+        private final byte[] intermedio = new byte[TAMANHO_RESUMO];
+    }
+}
@@ -0,0 +1,78 @@
+package sv;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MapaTokensGastos {
+    private static final VarHandle PALAVRAS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer bits;
+    private final int capacidade;
+
+    public MapaTokensGastos(int capacidade) {
+        this(ByteBuffer.allocateDirect(tamanhoEmBytes(capacidade)), capacidade);
+    }
+
+    private MapaTokensGastos(ByteBuffer bits, int capacidade) {
+        this.bits = bits.order(ByteOrder.nativeOrder());
+        this.capacidade = capacidade;
+    }
+
+    public static MapaTokensGastos mapear(Path ficheiro, int capacidade) throws IOException {
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new MapaTokensGastos(canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoEmBytes(capacidade)),
+                    capacidade);
+        }
+    }
+
+    private static int tamanhoEmBytes(int capacidade) {
+        if (capacidade < 0) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        }
+        return ((capacidade + 63) >>> 6) << 3;
+    }
+
+    public boolean marcar(int indice) {
+        int posicao = (indice >>> 6) << 3;
+        long bit = 1L << indice;
+        long atual = (long) PALAVRAS.getVolatile(bits, posicao);
+        while ((atual & bit) == 0) {
+            long anterior = (long) PALAVRAS.compareAndExchange(bits, posicao, atual, atual | bit);
+            if (anterior == atual) {
+                return true;
+            }
+            atual = anterior;
+        }
+        return false;
+    }
+
+    public boolean desmarcar(int indice) {
+        int posicao = (indice >>> 6) << 3;
+        long bit = 1L << indice;
+        long atual = (long) PALAVRAS.getVolatile(bits, posicao);
+        while ((atual & bit) != 0) {
+            long anterior = (long) PALAVRAS.compareAndExchange(bits, posicao, atual, atual & ~bit);
+            if (anterior == atual) {
+                return true;
+            }
+            atual = anterior;
+        }
+        return false;
+    }
+
+    public boolean isMarcado(int indice) {
+        return ((long) PALAVRAS.getVolatile(bits, (indice >>> 6) << 3) & (1L << indice)) != 0;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+}
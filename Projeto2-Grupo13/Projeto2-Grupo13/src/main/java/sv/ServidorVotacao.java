@@ -6,15 +6,26 @@ import shared.exceptions.AutenticacaoFalhouException;
 import java.security.PublicKey;
 import java.util.UUID;
 
-public class ServidorVotacao {
+public class ServidorVotacao implements ValidadorTokens {
     private final AutoridadeRegisto ar;
     private final PublicKey chavePublicaAA;
-    private final TokenService tokenService;
+    private final EmissorTokens emissorTokens;
+    private final ValidadorTokens validadorTokens;
 
     public ServidorVotacao(AutoridadeRegisto ar, PublicKey chavePublicaAA) {
+        this(ar, chavePublicaAA, new TokenService());
+    }
+
+    public ServidorVotacao(AutoridadeRegisto ar, PublicKey chavePublicaAA, TokenService tokenService) {
+        this(ar, chavePublicaAA, tokenService, tokenService);
+    }
+
+    public ServidorVotacao(AutoridadeRegisto ar, PublicKey chavePublicaAA,
+                           EmissorTokens emissorTokens, ValidadorTokens validadorTokens) {
         this.ar = ar;
         this.chavePublicaAA = chavePublicaAA;
-        this.tokenService = new TokenService();
+        this.emissorTokens = emissorTokens;
+        this.validadorTokens = validadorTokens;
     }
 
     public UUID autenticarEleitor(CertificadoEleitor certificado) throws AutenticacaoFalhouException {
@@ -29,7 +40,7 @@ public class ServidorVotacao {
                 throw new AutenticacaoFalhouException("Certificado inválido");
             }
 
-            UUID token = tokenService.emitirToken();
+            UUID token = emissorTokens.emitirToken();
             System.out.println("✅ Token emitido para: " + certificado.getIdentificacao());
             return token;
         } catch (Exception e) {
@@ -37,7 +48,21 @@ public class ServidorVotacao {
         }
     }
 
+    @Override
     public boolean validarToken(UUID token) {
-        return tokenService.validarToken(token);
+        return validadorTokens.validarToken(token);
+    }
+
+    @Override
+    public boolean devolverToken(UUID token) {
+        return validadorTokens.devolverToken(token);
+    }
+
+    public EmissorTokens getEmissorTokens() {
+        return emissorTokens;
+    }
+
+    public ValidadorTokens getValidadorTokens() {
+        return validadorTokens;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,318 @@
+package sv;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+public class TabelaTokensOffHeap implements ArmazemTokens {
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int BYTES_POR_ENTRADA = 24;
+    private static final int DESLOCAMENTO_LSB = 8;
+    private static final int DESLOCAMENTO_EXPIRACAO = 16;
+
+    // Valores reservados para os bits mais significativos: um UUID versão 4
+    // tem sempre o nibble de versão a 4, logo nunca coincide com estes.
+    private static final long VAZIO = 0L;
+    private static final long REMOVIDO = 1L;
+    private static final long RESERVADO = 2L;
+
+    private static final int ENTRADAS_POR_LIMPEZA = 4096;
+    private static final long INTERVALO_LIMPEZA_MS = 1000;
+    private static final int FRACAO_MAXIMA_REMOVIDOS = 4;
+
+    private final ByteBuffer tabela;
+    private final int mascara;
+    private final long validadeMs;
+    private final int capacidadeMaxima;
+    private final int limiteRemovidos;
+    // As operações partilham o trinco; só a compactação o toma em exclusivo.
+    private final StampedLock trinco = new StampedLock();
+    private final AtomicInteger pendentes = new AtomicInteger();
+    private final AtomicInteger removidos = new AtomicInteger();
+    private final AtomicInteger cursorLimpeza = new AtomicInteger();
+    private final AtomicLong proximaLimpeza = new AtomicLong();
+    private final LongAdder emitidos = new LongAdder();
+    private final LongAdder gastos = new LongAdder();
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder rejeitados = new LongAdder();
+
+    public TabelaTokensOffHeap(long validadeMs, int capacidadeMaxima) {
+        int entradas = Integer.highestOneBit(Math.max(16, capacidadeMaxima) * 2 - 1) << 1;
+        if (entradas <= 0 || (long) entradas * BYTES_POR_ENTRADA > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacidade demasiado grande: " + capacidadeMaxima);
+        }
+        this.tabela = ByteBuffer.allocateDirect(entradas * BYTES_POR_ENTRADA).order(ByteOrder.nativeOrder());
+        this.mascara = entradas - 1;
+        this.validadeMs = validadeMs;
+        this.capacidadeMaxima = capacidadeMaxima;
+        this.limiteRemovidos = entradas / FRACAO_MAXIMA_REMOVIDOS;
+    }
+
+    @Override
+    public boolean adicionar(UUID token) {
+        long msb = token.getMostSignificantBits();
+        long lsb = token.getLeastSignificantBits();
+        if (msb == VAZIO || msb == REMOVIDO || msb == RESERVADO) {
+            throw new IllegalArgumentException("Token não suportado pela tabela");
+        }
+        if (removidos.get() > limiteRemovidos) {
+            compactar();
+        }
+
+        long stamp = trinco.readLock();
+        try {
+            long agora = System.currentTimeMillis();
+            limparAmortizado(agora);
+            if (!reservarVaga(agora)) {
+                rejeitados.increment();
+                return false;
+            }
+            if (!inserir(msb, lsb, agora + validadeMs)) {
+                pendentes.decrementAndGet();
+                rejeitados.increment();
+                return false;
+            }
+            emitidos.increment();
+            return true;
+        } finally {
+            trinco.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean repor(UUID token, long expiracao) {
+        long msb = token.getMostSignificantBits();
+        long lsb = token.getLeastSignificantBits();
+        if (msb == VAZIO || msb == REMOVIDO || msb == RESERVADO) {
+            return false;
+        }
+        long stamp = trinco.readLock();
+        try {
+            if (contem(msb, lsb)) {
+                return false;
+            }
+            pendentes.incrementAndGet();
+            if (!inserir(msb, lsb, expiracao)) {
+                pendentes.decrementAndGet();
+                return false;
+            }
+            gastos.decrement();
+            return true;
+        } finally {
+            trinco.unlockRead(stamp);
+        }
+    }
+
+    private boolean contem(long msb, long lsb) {
+        int indice = indice(msb, lsb);
+        for (int tentativas = 0; tentativas <= mascara; tentativas++) {
+            int base = indice * BYTES_POR_ENTRADA;
+            long atual = (long) LONGS.getVolatile(tabela, base);
+            if (atual == VAZIO) {
+                return false;
+            }
+            if (atual == msb && (long) LONGS.getVolatile(tabela, base + DESLOCAMENTO_LSB) == lsb) {
+                return true;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        return false;
+    }
+
+    private boolean reservarVaga(long agora) {
+        if (pendentes.incrementAndGet() > capacidadeMaxima) {
+            pendentes.decrementAndGet();
+            limpar(0, mascara + 1, agora);
+            if (pendentes.incrementAndGet() > capacidadeMaxima) {
+                pendentes.decrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean inserir(long msb, long lsb, long expiracao) {
+        int indice = indice(msb, lsb);
+        for (int tentativas = 0; tentativas <= mascara; ) {
+            int base = indice * BYTES_POR_ENTRADA;
+            long atual = (long) LONGS.getVolatile(tabela, base);
+            if (atual == VAZIO || atual == REMOVIDO) {
+                if (LONGS.compareAndSet(tabela, base, atual, RESERVADO)) {
+                    if (atual == REMOVIDO) {
+                        removidos.decrementAndGet();
+                    }
+                    LONGS.setVolatile(tabela, base + DESLOCAMENTO_LSB, lsb);
+                    LONGS.setVolatile(tabela, base + DESLOCAMENTO_EXPIRACAO, expiracao);
+                    LONGS.setVolatile(tabela, base, msb);
+                    return true;
+                }
+                continue;
+            }
+            indice = (indice + 1) & mascara;
+            tentativas++;
+        }
+        return false;
+    }
+
+    @Override
+    public long gastar(UUID token) {
+        long stamp = trinco.readLock();
+        try {
+            return remover(token.getMostSignificantBits(), token.getLeastSignificantBits());
+        } finally {
+            trinco.unlockRead(stamp);
+        }
+    }
+
+    private long remover(long msb, long lsb) {
+        long agora = System.currentTimeMillis();
+        limparAmortizado(agora);
+
+        int indice = indice(msb, lsb);
+        for (int tentativas = 0; tentativas <= mascara; tentativas++) {
+            int base = indice * BYTES_POR_ENTRADA;
+            long atual = (long) LONGS.getVolatile(tabela, base);
+            if (atual == VAZIO) {
+                return EXPIRACAO_INVALIDA;
+            }
+            if (atual == msb && (long) LONGS.getVolatile(tabela, base + DESLOCAMENTO_LSB) == lsb) {
+                long expiracao = (long) LONGS.getVolatile(tabela, base + DESLOCAMENTO_EXPIRACAO);
+                if (!LONGS.compareAndSet(tabela, base, msb, REMOVIDO)) {
+                    return EXPIRACAO_INVALIDA;
+                }
+                removidos.incrementAndGet();
+                pendentes.decrementAndGet();
+                if (expiracao < agora) {
+                    expirados.increment();
+                    return EXPIRACAO_INVALIDA;
+                }
+                gastos.increment();
+                return expiracao;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        return EXPIRACAO_INVALIDA;
+    }
+
+    @Override
+    public void limparExpirados() {
+        long stamp = trinco.readLock();
+        try {
+            limpar(0, mascara + 1, System.currentTimeMillis());
+        } finally {
+            trinco.unlockRead(stamp);
+        }
+    }
+
+    // Entradas REMOVIDO nunca voltam a VAZIO, por isso as sondagens de tokens ausentes
+    // crescem com o histórico. Acima do limite, a tabela é reconstruída só com os vivos.
+    private void compactar() {
+        long stamp = trinco.writeLock();
+        try {
+            if (removidos.get() <= limiteRemovidos) {
+                return;
+            }
+            long agora = System.currentTimeMillis();
+            long[] vivos = new long[pendentes.get() * 3];
+            int total = 0;
+            for (int indice = 0; indice <= mascara; indice++) {
+                int base = indice * BYTES_POR_ENTRADA;
+                long msb = (long) LONGS.get(tabela, base);
+                if (msb != VAZIO && msb != REMOVIDO) {
+                    long expiracao = (long) LONGS.get(tabela, base + DESLOCAMENTO_EXPIRACAO);
+                    if (expiracao < agora) {
+                        pendentes.decrementAndGet();
+                        expirados.increment();
+                    } else {
+                        vivos[total++] = msb;
+                        vivos[total++] = (long) LONGS.get(tabela, base + DESLOCAMENTO_LSB);
+                        vivos[total++] = expiracao;
+                    }
+                }
+                LONGS.set(tabela, base, VAZIO);
+            }
+            for (int i = 0; i < total; i += 3) {
+                int indice = indice(vivos[i], vivos[i + 1]);
+                while ((long) LONGS.get(tabela, indice * BYTES_POR_ENTRADA) != VAZIO) {
+                    indice = (indice + 1) & mascara;
+                }
+                int base = indice * BYTES_POR_ENTRADA;
+                LONGS.set(tabela, base, vivos[i]);
+                LONGS.set(tabela, base + DESLOCAMENTO_LSB, vivos[i + 1]);
+                LONGS.set(tabela, base + DESLOCAMENTO_EXPIRACAO, vivos[i + 2]);
+            }
+            removidos.set(0);
+        } finally {
+            trinco.unlockWrite(stamp);
+        }
+    }
+
+    private void limparAmortizado(long agora) {
+        long limite = proximaLimpeza.get();
+        if (agora >= limite && proximaLimpeza.compareAndSet(limite, agora + INTERVALO_LIMPEZA_MS)) {
+            int inicio = cursorLimpeza.getAndAdd(ENTRADAS_POR_LIMPEZA) & mascara;
+            limpar(inicio, Math.min(mascara + 1, inicio + ENTRADAS_POR_LIMPEZA), agora);
+        }
+    }
+
+    private void limpar(int inicio, int fim, long agora) {
+        for (int indice = inicio; indice < fim; indice++) {
+            int base = indice * BYTES_POR_ENTRADA;
+            long atual = (long) LONGS.getVolatile(tabela, base);
+            if (atual == VAZIO || atual == REMOVIDO || atual == RESERVADO) {
+                continue;
+            }
+            long expiracao = (long) LONGS.getVolatile(tabela, base + DESLOCAMENTO_EXPIRACAO);
+            if (expiracao < agora && LONGS.compareAndSet(tabela, base, atual, REMOVIDO)) {
+                removidos.incrementAndGet();
+                pendentes.decrementAndGet();
+                expirados.increment();
+            }
+        }
+    }
+
+    private int indice(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mascara;
+    }
+
+    public long getBytesReservados() {
+        return tabela.capacity();
+    }
+
+    @Override
+    public int getPendentes() {
+        return pendentes.get();
+    }
+
+    @Override
+    public long getEmitidos() {
+        return emitidos.sum();
+    }
+
+    @Override
+    public long getGastos() {
+        return gastos.sum();
+    }
+
+    @Override
+    public long getExpirados() {
+        return expirados.sum();
+    }
+
+    @Override
+    public long getRejeitados() {
+        return rejeitados.sum();
+    }
+}
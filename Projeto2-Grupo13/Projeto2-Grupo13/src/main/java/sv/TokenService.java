@@ -1,19 +1,88 @@
 package sv;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
 import java.util.UUID;
 
-public class TokenService {
-    private final Set<UUID> tokensEmitidos = new HashSet<>();
+public class TokenService implements EmissorTokens, ValidadorTokens {
+    private static final Duration VALIDADE_TOKEN = Duration.ofMinutes(15);
+    private static final int MAX_TOKENS_PENDENTES = 1000000;
 
+    private final ArmazemTokens tokensEmitidos;
+    // Último token gasto por cada thread, para o repor com a expiração original.
+    private final ThreadLocal<TokenGasto> ultimoGasto = ThreadLocal.withInitial(TokenGasto::new);
+
+    public TokenService() {
+        this(VALIDADE_TOKEN, MAX_TOKENS_PENDENTES);
+    }
+
+    public TokenService(Duration validade, int maxTokensPendentes) {
+        this(new ArmazemTokensConcorrente(validade.toMillis(), maxTokensPendentes));
+    }
+
+    public TokenService(ArmazemTokens tokensEmitidos) {
+        this.tokensEmitidos = tokensEmitidos;
+    }
+
+    public static TokenService offHeap(Duration validade, int maxTokensPendentes) {
+        return new TokenService(new TabelaTokensOffHeap(validade.toMillis(), maxTokensPendentes));
+    }
+
+    @Override
     public UUID emitirToken() {
         UUID token = UUID.randomUUID();
-        tokensEmitidos.add(token);
+        if (!tokensEmitidos.adicionar(token)) {
+            throw new IllegalStateException("Limite de tokens pendentes atingido");
+        }
         return token;
     }
 
+    @Override
     public boolean validarToken(UUID token) {
-        return tokensEmitidos.remove(token);
+        if (token == null) {
+            return false;
+        }
+        long expiracao = tokensEmitidos.gastar(token);
+        if (expiracao == ArmazemTokens.EXPIRACAO_INVALIDA) {
+            return false;
+        }
+        TokenGasto gasto = ultimoGasto.get();
+        gasto.token = token;
+        gasto.expiracao = expiracao;
+        return true;
+    }
+
+    @Override
+    public boolean devolverToken(UUID token) {
+        TokenGasto gasto = ultimoGasto.get();
+        if (token == null || !token.equals(gasto.token)) {
+            return false;
+        }
+        gasto.token = null;
+        return tokensEmitidos.repor(token, gasto.expiracao);
+    }
+
+    public void limparExpirados() {
+        tokensEmitidos.limparExpirados();
+    }
+
+    public int getTokensPendentes() {
+        return tokensEmitidos.getPendentes();
+    }
+
+    public long getTokensEmitidos() {
+        return tokensEmitidos.getEmitidos();
+    }
+
+    public long getTokensGastos() {
+        return tokensEmitidos.getGastos();
+    }
+
+    public long getTokensExpirados() {
+        return tokensEmitidos.getExpirados();
+    }
+
+    private static final class TokenGasto {
+        private UUID token;
+        private long expiracao;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package sv;
+
+import java.util.UUID;
+
+public interface ValidadorTokens {
+    boolean validarToken(UUID token);
+
+    // Repõe um token validado cujo voto não chegou a ser guardado. Chamado na mesma
+    // thread, logo após validarToken; devolve false se o token não pôde ser reposto.
+    default boolean devolverToken(UUID token) {
+        return false;
+    }
+}
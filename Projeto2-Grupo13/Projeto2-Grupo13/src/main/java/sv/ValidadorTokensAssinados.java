@@ -0,0 +1,68 @@
+package sv;
+
+import javax.crypto.SecretKey;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ValidadorTokensAssinados implements ValidadorTokens {
+    private final FormatoTokenAssinado formato;
+    private final MapaTokensGastos gastos;
+    private final LongAdder aceites = new LongAdder();
+    private final LongAdder invalidos = new LongAdder();
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder reutilizados = new LongAdder();
+
+    public ValidadorTokensAssinados(SecretKey chave, MapaTokensGastos gastos) {
+        this.formato = new FormatoTokenAssinado(chave);
+        this.gastos = gastos;
+    }
+
+    @Override
+    public boolean validarToken(UUID token) {
+        if (token == null) {
+            return false;
+        }
+        long cabecalho = token.getMostSignificantBits();
+        int sequencia = FormatoTokenAssinado.sequencia(cabecalho);
+        if (sequencia < 0 || sequencia >= gastos.getCapacidade()
+                || formato.mac(cabecalho) != token.getLeastSignificantBits()) {
+            invalidos.increment();
+            return false;
+        }
+        if (FormatoTokenAssinado.expiraSegundos(cabecalho) * 1000 < System.currentTimeMillis()) {
+            expirados.increment();
+            return false;
+        }
+        if (!gastos.marcar(sequencia)) {
+            reutilizados.increment();
+            return false;
+        }
+        aceites.increment();
+        return true;
+    }
+
+    @Override
+    public boolean devolverToken(UUID token) {
+        if (!gastos.desmarcar(FormatoTokenAssinado.sequencia(token.getMostSignificantBits()))) {
+            return false;
+        }
+        aceites.decrement();
+        return true;
+    }
+
+    public long getAceites() {
+        return aceites.sum();
+    }
+
+    public long getInvalidos() {
+        return invalidos.sum();
+    }
+
+    public long getExpirados() {
+        return expirados.sum();
+    }
+
+    public long getReutilizados() {
+        return reutilizados.sum();
+    }
+}
@@ -0,0 +1,58 @@
+package ue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+
+final class CanalExportacaoVotos implements ReadableByteChannel {
+    private final Iterator<ByteBuffer> votos;
+    private final ByteBuffer cabecalho = ByteBuffer.allocate(4);
+    private ByteBuffer atual;
+    private boolean aberto = true;
+
+    CanalExportacaoVotos(Iterator<ByteBuffer> votos) {
+        this.votos = votos;
+        this.cabecalho.limit(0);
+    }
+
+    @Override
+    public int read(ByteBuffer destino) throws IOException {
+        if (!aberto) {
+            throw new ClosedChannelException();
+        }
+        int lidos = 0;
+        while (destino.hasRemaining()) {
+            if (!cabecalho.hasRemaining() && (atual == null || !atual.hasRemaining())) {
+                if (!votos.hasNext()) {
+                    return lidos == 0 ? -1 : lidos;
+                }
+                atual = votos.next().duplicate();
+                cabecalho.clear();
+                cabecalho.putInt(atual.remaining()).flip();
+            }
+            lidos += transferir(cabecalho.hasRemaining() ? cabecalho : atual, destino);
+        }
+        return lidos;
+    }
+
+    private static int transferir(ByteBuffer origem, ByteBuffer destino) {
+        int n = Math.min(origem.remaining(), destino.remaining());
+        int limite = origem.limit();
+        origem.limit(origem.position() + n);
+        destino.put(origem);
+        origem.limit(limite);
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return aberto;
+    }
+
+    @Override
+    public void close() {
+        aberto = false;
+    }
+}
@@ -0,0 +1,377 @@
+package ue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+public class DiarioVotos implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(DiarioVotos.class);
+
+    private static final long TAMANHO_SEGMENTO = 64L * 1024 * 1024;
+    private static final Duration JANELA_COMMIT = Duration.ofMillis(2);
+    private static final int BYTES_POR_LOTE = 256 * 1024;
+
+    private static final String PREFIXO = "segmento-";
+    private static final String SUFIXO = ".log";
+    private static final String PREFIXO_QUARENTENA = "quarentena-";
+    // [tamanho do voto + 1, 0 marca o fim][crc32c][token msb][token lsb][voto]
+    private static final int CABECALHO = 4 + 4 + 8 + 8;
+
+    private final Path diretoria;
+    private final int tamanhoSegmento;
+    private final long janelaNanos;
+    private final int bytesPorLote;
+    private final ArrayDeque<MappedByteBuffer> porSincronizar = new ArrayDeque<>();
+    private final Object monitorDurabilidade = new Object();
+    private final Thread sincronizador;
+
+    private MappedByteBuffer segmento;
+    private int numeroSegmento;
+    private int posicao;
+    private int votosRecuperados;
+    private volatile long totalVotos;
+    private volatile long escrito;
+    private volatile long duravel;
+    private volatile IOException falha;
+    private volatile boolean fechado;
+
+    public DiarioVotos(Path diretoria) throws IOException {
+        this(diretoria, TAMANHO_SEGMENTO, JANELA_COMMIT, BYTES_POR_LOTE);
+    }
+
+    public DiarioVotos(Path diretoria, long tamanhoSegmento, Duration janela, int bytesPorLote) throws IOException {
+        if (tamanhoSegmento <= CABECALHO || tamanhoSegmento > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamanho de segmento inválido: " + tamanhoSegmento);
+        }
+        this.diretoria = Files.createDirectories(diretoria);
+        this.tamanhoSegmento = (int) tamanhoSegmento;
+        this.janelaNanos = janela.toNanos();
+        this.bytesPorLote = bytesPorLote;
+
+        recuperar();
+
+        this.sincronizador = new Thread(this::sincronizar, "diario-votos-sync");
+        sincronizador.setDaemon(true);
+        sincronizador.start();
+    }
+
+    public void registar(byte[] voto, UUID token) throws IOException {
+        aguardarDurabilidade(anexar(voto, token));
+    }
+
+    public long anexar(byte[] voto, UUID token) throws IOException {
+        int tamanhoRegisto = CABECALHO + voto.length;
+        if (tamanhoRegisto > tamanhoSegmento) {
+            throw new IllegalArgumentException("Voto excede o tamanho do segmento: " + voto.length);
+        }
+
+        long fim;
+        synchronized (this) {
+            verificarAberto();
+            if (posicao + tamanhoRegisto > tamanhoSegmento) {
+                rodarSegmento();
+            }
+            int inicio = posicao;
+            segmento.putLong(inicio + 8, token.getMostSignificantBits());
+            segmento.putLong(inicio + 16, token.getLeastSignificantBits());
+            segmento.put(inicio + CABECALHO, voto);
+            segmento.putInt(inicio + 4, checksum(segmento, inicio, voto.length));
+            segmento.putInt(inicio, voto.length + 1);
+            posicao += tamanhoRegisto;
+            fim = (long) numeroSegmento * tamanhoSegmento + posicao;
+            totalVotos++;
+            escrito = fim;
+        }
+
+        if (fim - duravel >= bytesPorLote || janelaNanos == 0) {
+            LockSupport.unpark(sincronizador);
+        }
+        return fim;
+    }
+
+    public void aguardarDurabilidade(long posicaoLogica) throws IOException {
+        if (duravel >= posicaoLogica) {
+            return;
+        }
+        synchronized (monitorDurabilidade) {
+            while (duravel < posicaoLogica) {
+                if (falha != null) {
+                    throw new IOException("Falha ao sincronizar diário de votos", falha);
+                }
+                if (fechado) {
+                    throw new IOException("Diário de votos encerrado");
+                }
+                try {
+                    monitorDurabilidade.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrompido a aguardar durabilidade", e);
+                }
+            }
+        }
+    }
+
+    public Iterator<ByteBuffer> votos() {
+        return new CursorSegmentos(duravel, false);
+    }
+
+    Iterator<ByteBuffer> seguirVotos() {
+        return new CursorSegmentos(duravel, true);
+    }
+
+    public int getVotosRecuperados() {
+        return votosRecuperados;
+    }
+
+    public long getTotalVotos() {
+        return totalVotos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (fechado) {
+                return;
+            }
+            fechado = true;
+        }
+        LockSupport.unpark(sincronizador);
+        try {
+            sincronizador.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    private void sincronizar() {
+        while (true) {
+            boolean terminar = fechado;
+            if (!terminar) {
+                LockSupport.parkNanos(this, janelaNanos == 0 ? TimeUnit.MILLISECONDS.toNanos(50) : janelaNanos);
+            }
+            long alvo = escrito;
+            if (alvo > duravel) {
+                try {
+                    List<MappedByteBuffer> segmentos;
+                    synchronized (this) {
+                        segmentos = new ArrayList<>(porSincronizar);
+                        porSincronizar.clear();
+                        segmentos.add(segmento);
+                    }
+                    for (MappedByteBuffer s : segmentos) {
+                        s.force();
+                    }
+                } catch (RuntimeException e) {
+                    falha = new IOException("Erro ao forçar segmento para disco", e);
+                    logger.error("Diário de votos deixou de ser durável: {}", e.getMessage());
+                }
+                synchronized (monitorDurabilidade) {
+                    if (falha == null) {
+                        duravel = alvo;
+                    }
+                    monitorDurabilidade.notifyAll();
+                }
+            }
+            if (terminar || falha != null) {
+                synchronized (monitorDurabilidade) {
+                    monitorDurabilidade.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private void rodarSegmento() throws IOException {
+        porSincronizar.add(segmento);
+        numeroSegmento++;
+        segmento = mapear(ficheiroSegmento(numeroSegmento));
+        posicao = 0;
+    }
+
+    private void recuperar() throws IOException {
+        List<Path> ficheiros;
+        try (Stream<Path> listagem = Files.list(diretoria)) {
+            ficheiros = listagem
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIXO)
+                            && p.getFileName().toString().endsWith(SUFIXO))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        numeroSegmento = 0;
+        segmento = null;
+        for (int i = 0; i < ficheiros.size(); i++) {
+            Path ficheiro = ficheiros.get(i);
+            MappedByteBuffer mapeado = mapear(ficheiro);
+            int fim = lerSegmento(mapeado);
+            numeroSegmento = numeroDe(ficheiro);
+            segmento = mapeado;
+            posicao = fim;
+            if (fim + 4 <= tamanhoSegmento && mapeado.getInt(fim) != 0) {
+                List<Path> seguintes = ficheiros.subList(i + 1, ficheiros.size());
+                if (seguintes.isEmpty()) {
+                    logger.warn("Registo incompleto em {} na posição {}, a descartar cauda", ficheiro.getFileName(), fim);
+                } else {
+                    // Os segmentos seguintes podem conter votos já confirmados: nunca são apagados.
+                    Path quarentena = colocarEmQuarentena(ficheiro, seguintes);
+                    logger.error("Registo inválido em {} na posição {} seguido de {} segmentos; "
+                                    + "cópia do segmento e segmentos seguintes movidos para {}",
+                            ficheiro.getFileName(), fim, seguintes.size(), quarentena);
+                }
+                descartarCauda(mapeado, fim);
+                break;
+            }
+        }
+        if (segmento == null) {
+            segmento = mapear(ficheiroSegmento(0));
+            posicao = 0;
+        }
+        escrito = (long) numeroSegmento * tamanhoSegmento + posicao;
+        duravel = escrito;
+        totalVotos = votosRecuperados;
+        if (votosRecuperados > 0) {
+            logger.info("Recuperados {} votos do diário em {}", votosRecuperados, diretoria);
+        }
+    }
+
+    private Path colocarEmQuarentena(Path danificado, List<Path> seguintes) throws IOException {
+        Path quarentena = Files.createDirectories(diretoria.resolve(PREFIXO_QUARENTENA + System.currentTimeMillis()));
+        Files.copy(danificado, quarentena.resolve(danificado.getFileName()));
+        for (Path seguinte : seguintes) {
+            Files.move(seguinte, quarentena.resolve(seguinte.getFileName()));
+        }
+        return quarentena;
+    }
+
+    private void descartarCauda(MappedByteBuffer mapeado, int inicio) {
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = inicio; i < tamanhoSegmento; i += zeros.length) {
+            mapeado.put(i, zeros, 0, Math.min(zeros.length, tamanhoSegmento - i));
+        }
+        mapeado.force();
+    }
+
+    private int lerSegmento(MappedByteBuffer mapeado) {
+        int inicio = 0;
+        while (inicio + CABECALHO <= tamanhoSegmento) {
+            int tamanho = mapeado.getInt(inicio) - 1;
+            if (tamanho < 0 || inicio + CABECALHO + tamanho > tamanhoSegmento
+                    || mapeado.getInt(inicio + 4) != checksum(mapeado, inicio, tamanho)) {
+                return inicio;
+            }
+            votosRecuperados++;
+            inicio += CABECALHO + tamanho;
+        }
+        return inicio;
+    }
+
+    private static int checksum(MappedByteBuffer mapeado, int inicio, int tamanhoVoto) {
+        CRC32C crc = new CRC32C();
+        crc.update(mapeado.slice(inicio + 8, CABECALHO - 8 + tamanhoVoto));
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer mapear(Path ficheiro) throws IOException {
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+            mapeado.order(ByteOrder.BIG_ENDIAN);
+            return mapeado;
+        }
+    }
+
+    private Path ficheiroSegmento(int numero) {
+        return diretoria.resolve(String.format("%s%06d%s", PREFIXO, numero, SUFIXO));
+    }
+
+    private static int numeroDe(Path ficheiro) {
+        String nome = ficheiro.getFileName().toString();
+        return Integer.parseInt(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+
+    private void verificarAberto() throws IOException {
+        if (fechado) {
+            throw new IOException("Diário de votos encerrado");
+        }
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    private final class CursorSegmentos implements Iterator<ByteBuffer> {
+        private final boolean seguir;
+        private long limite;
+        private int numero = -1;
+        private MappedByteBuffer atual;
+        private int inicio;
+
+        CursorSegmentos(long limite, boolean seguir) {
+            this.limite = limite;
+            this.seguir = seguir;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (seguir) {
+                limite = duravel;
+            }
+            while (!haRegisto()) {
+                if ((long) (numero + 1) * tamanhoSegmento >= limite) {
+                    return false;
+                }
+                numero++;
+                try (FileChannel canal = FileChannel.open(ficheiroSegmento(numero), StandardOpenOption.READ)) {
+                    atual = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanhoSegmento);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Erro ao abrir segmento " + numero, e);
+                }
+                inicio = 0;
+            }
+            return true;
+        }
+
+        private boolean haRegisto() {
+            long fimSegmento = Math.min(tamanhoSegmento, limite - (long) numero * tamanhoSegmento);
+            if (atual == null || inicio + CABECALHO > fimSegmento) {
+                return false;
+            }
+            int tamanho = atual.getInt(inicio) - 1;
+            return tamanho >= 0 && inicio + CABECALHO + tamanho <= fimSegmento;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int tamanho = atual.getInt(inicio) - 1;
+            ByteBuffer voto = atual.slice(inicio + CABECALHO, tamanho);
+            inicio += CABECALHO + tamanho;
+            return voto;
+        }
+    }
+}
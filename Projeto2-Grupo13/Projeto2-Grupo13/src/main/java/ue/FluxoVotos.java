@@ -0,0 +1,45 @@
+package ue;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class FluxoVotos {
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final UrnaEletronica urna;
+    private final Iterator<ByteBuffer> votos;
+    private boolean terminado;
+
+    FluxoVotos(UrnaEletronica urna, Iterator<ByteBuffer> votos) {
+        this.urna = urna;
+        this.votos = votos;
+    }
+
+    public ByteBuffer proximo(long timeout, TimeUnit unidade) {
+        long limite = System.nanoTime() + unidade.toNanos(timeout);
+        long espera = 1000;
+        while (!terminado) {
+            boolean encerrada = urna.isVotacaoEncerradaSemPendentes();
+            if (votos.hasNext()) {
+                return votos.next();
+            }
+            if (encerrada) {
+                terminado = true;
+                break;
+            }
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                break;
+            }
+            LockSupport.parkNanos(Math.min(espera, restante));
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_NANOS);
+        }
+        return null;
+    }
+
+    public boolean isTerminado() {
+        return terminado;
+    }
+}
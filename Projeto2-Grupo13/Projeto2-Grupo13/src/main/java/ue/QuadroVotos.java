@@ -0,0 +1,146 @@
+package ue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import shared.ArvoreMerkle;
+import shared.RaizAssinada;
+import shared.ReciboVoto;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class QuadroVotos {
+    private static final Logger logger = LogManager.getLogger(QuadroVotos.class);
+
+    private static final long ESPERA_MS = 50;
+
+    private final FluxoVotos fluxo;
+    private final PrivateKey chaveAssinatura;
+    private final ArvoreMerkle arvore = new ArvoreMerkle();
+    private final IndiceFolhas indice = new IndiceFolhas();
+    private final CountDownLatch selado = new CountDownLatch(1);
+    private final Thread construtor;
+    private volatile RaizAssinada raiz;
+    private volatile Exception falha;
+
+    QuadroVotos(FluxoVotos fluxo, PrivateKey chaveAssinatura) {
+        this.fluxo = fluxo;
+        this.chaveAssinatura = chaveAssinatura;
+        this.construtor = new Thread(this::construir, "ue-quadro-votos");
+        construtor.setDaemon(true);
+        construtor.start();
+    }
+
+    private void construir() {
+        try {
+            while (!fluxo.isTerminado()) {
+                ByteBuffer voto = fluxo.proximo(ESPERA_MS, TimeUnit.MILLISECONDS);
+                if (voto != null) {
+                    byte[] folha = ArvoreMerkle.hashFolha(voto);
+                    indice.registar(folha, arvore.getTamanho());
+                    arvore.acrescentar(folha);
+                }
+            }
+            long tamanho = arvore.getTamanho();
+            raiz = RaizAssinada.assinar(tamanho, arvore.raiz(tamanho), chaveAssinatura);
+            logger.info("Quadro de votos selado: {}", raiz);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            falha = e;
+            logger.error("Falha ao construir o quadro de votos: {}", e.getMessage(), e);
+        } finally {
+            selado.countDown();
+        }
+    }
+
+    public RaizAssinada aguardarRaiz(long timeout, TimeUnit unidade) throws InterruptedException, TimeoutException {
+        if (!selado.await(timeout, unidade)) {
+            throw new TimeoutException("Quadro de votos ainda não selado");
+        }
+        return getRaiz();
+    }
+
+    public RaizAssinada getRaiz() {
+        RaizAssinada r = raiz;
+        if (r == null) {
+            throw new IllegalStateException(falha != null
+                    ? "Quadro de votos falhou: " + falha.getMessage()
+                    : "Quadro de votos ainda não selado");
+        }
+        return r;
+    }
+
+    public ReciboVoto obterRecibo(byte[] voto) throws NoSuchAlgorithmException {
+        RaizAssinada r = getRaiz();
+        long posicao = indice.procurar(ArvoreMerkle.hashFolha(voto));
+        if (posicao < 0) {
+            return null;
+        }
+        return new ReciboVoto(posicao, r.getTamanho(), arvore.provaInclusao(posicao, r.getTamanho()));
+    }
+
+    public long getTamanho() {
+        return arvore.getTamanho();
+    }
+
+    // Só o construtor escreve; as leituras acontecem depois de selado, que publica o índice.
+    private final class IndiceFolhas {
+        private long[] prefixos = new long[1024];
+        private long[] posicoes = new long[1024];
+        private int ocupadas;
+
+        void registar(byte[] folha, long posicao) {
+            if ((ocupadas + 1) * 2 > posicoes.length) {
+                crescer();
+            }
+            inserir(prefixo(folha), posicao + 1);
+            ocupadas++;
+        }
+
+        long procurar(byte[] folha) {
+            long chave = prefixo(folha);
+            int mascara = posicoes.length - 1;
+            for (int i = espalhar(chave) & mascara; posicoes[i] != 0; i = (i + 1) & mascara) {
+                if (prefixos[i] == chave && Arrays.equals(arvore.getFolha(posicoes[i] - 1), folha)) {
+                    return posicoes[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private void inserir(long chave, long posicaoMaisUm) {
+            int mascara = posicoes.length - 1;
+            int i = espalhar(chave) & mascara;
+            while (posicoes[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            prefixos[i] = chave;
+            posicoes[i] = posicaoMaisUm;
+        }
+
+        private void crescer() {
+            long[] antigosPrefixos = prefixos;
+            long[] antigasPosicoes = posicoes;
+            prefixos = new long[antigosPrefixos.length * 2];
+            posicoes = new long[antigasPosicoes.length * 2];
+            for (int i = 0; i < antigasPosicoes.length; i++) {
+                if (antigasPosicoes[i] != 0) {
+                    inserir(antigosPrefixos[i], antigasPosicoes[i]);
+                }
+            }
+        }
+
+        private long prefixo(byte[] folha) {
+            return ByteBuffer.wrap(folha).getLong();
+        }
+
+        private int espalhar(long chave) {
+            return (int) (chave ^ (chave >>> 32));
+        }
+    }
+}
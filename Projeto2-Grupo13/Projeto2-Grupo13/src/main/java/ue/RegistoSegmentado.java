@@ -0,0 +1,93 @@
+package ue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+final class RegistoSegmentado<T> {
+    private static final int BITS_SEGMENTO = 12;
+    private static final int TAMANHO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = TAMANHO_SEGMENTO - 1;
+    private static final int MAX_SEGMENTOS = 1 << 14;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> segmentos =
+            new AtomicReferenceArray<>(MAX_SEGMENTOS);
+    private final AtomicLong reservados = new AtomicLong();
+    private final LongAdder publicados = new LongAdder();
+
+    long anexar(T elemento) {
+        long indice = reservados.getAndIncrement();
+        if (indice >= (long) MAX_SEGMENTOS * TAMANHO_SEGMENTO) {
+            reservados.decrementAndGet();
+            throw new IllegalStateException("Capacidade do registo esgotada");
+        }
+        segmento((int) (indice >>> BITS_SEGMENTO)).lazySet((int) indice & MASCARA_SEGMENTO, elemento);
+        publicados.increment();
+        return indice;
+    }
+
+    T obter(long indice) {
+        AtomicReferenceArray<T> segmento = segmentos.get((int) (indice >>> BITS_SEGMENTO));
+        return segmento == null ? null : segmento.get((int) indice & MASCARA_SEGMENTO);
+    }
+
+    Iterator<T> iterador() {
+        long limite = reservados.get();
+        return new Iterator<T>() {
+            private long indice;
+            private T proximo;
+
+            @Override
+            public boolean hasNext() {
+                while (proximo == null && indice < limite) {
+                    proximo = obter(indice++);
+                }
+                return proximo != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T elemento = proximo;
+                proximo = null;
+                return elemento;
+            }
+        };
+    }
+
+    Iterator<T> seguir() {
+        return new Iterator<T>() {
+            private long indice;
+
+            @Override
+            public boolean hasNext() {
+                return indice < reservados.get() && obter(indice) != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return obter(indice++);
+            }
+        };
+    }
+
+    long tamanho() {
+        return publicados.sum();
+    }
+
+    private AtomicReferenceArray<T> segmento(int numero) {
+        AtomicReferenceArray<T> segmento = segmentos.get(numero);
+        if (segmento == null) {
+            AtomicReferenceArray<T> novo = new AtomicReferenceArray<>(TAMANHO_SEGMENTO);
+            segmento = segmentos.compareAndSet(numero, null, novo) ? novo : segmentos.get(numero);
+        }
+        return segmento;
+    }
+}
@@ -1,59 +1,174 @@
 package ue;
 
 import sv.ServidorVotacao;
+import sv.ValidadorTokens;
+import shared.VistaVoto;
 import shared.exceptions.TokenInvalidoException;
 import shared.exceptions.VotoInvalidoException;
 import shared.exceptions.VotacaoEncerradaException;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.PrivateKey;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class UrnaEletronica {
-    private final ServidorVotacao servidorVotacao;
-    private final List<Voto> votos = new ArrayList<>();
-    private boolean votacaoEncerrada = false;
+    private static final long ENCERRADA = Long.MIN_VALUE;
+    private static final long EM_CURSO = ~ENCERRADA;
+
+    private final ValidadorTokens validadorTokens;
+    private final DiarioVotos diario;
+    private final QuadroVotos quadro;
+    private final RegistoSegmentado<Voto> votos = new RegistoSegmentado<>();
+    // Bit mais significativo: votação encerrada; restantes: votos em processamento.
+    private final AtomicLong estado = new AtomicLong();
+    private final AtomicLong primeiroVotoNanos = new AtomicLong();
+    private volatile long encerramentoNanos;
 
     public UrnaEletronica(ServidorVotacao servidorVotacao) {
-        this.servidorVotacao = servidorVotacao;
+        this(servidorVotacao.getValidadorTokens());
+    }
+
+    public UrnaEletronica(ValidadorTokens validadorTokens) {
+        this(validadorTokens, null);
+    }
+
+    public UrnaEletronica(ValidadorTokens validadorTokens, DiarioVotos diario) {
+        this(validadorTokens, diario, null);
+    }
+
+    public UrnaEletronica(ValidadorTokens validadorTokens, DiarioVotos diario, PrivateKey chaveQuadro) {
+        this.validadorTokens = validadorTokens;
+        this.diario = diario;
+        this.quadro = chaveQuadro != null ? new QuadroVotos(subscrever(), chaveQuadro) : null;
     }
 
     public void receberVoto(byte[] votoEncriptado, UUID token)
-            throws TokenInvalidoException, VotoInvalidoException, VotacaoEncerradaException {
+            throws TokenInvalidoException, VotoInvalidoException, VotacaoEncerradaException, IOException {
 
-        if (votacaoEncerrada) {
+        if (estado.getAndIncrement() < 0) {
+            estado.decrementAndGet();
             throw new VotacaoEncerradaException("Período de votação encerrado");
         }
 
-        if (token == null || !servidorVotacao.validarToken(token)) {
-            throw new TokenInvalidoException("Token inválido ou já utilizado");
-        }
-
-        if (votoEncriptado == null || votoEncriptado.length == 0) {
-            throw new VotoInvalidoException("Voto encriptado é inválido");
+        try {
+            if (votoEncriptado == null || votoEncriptado.length == 0) {
+                throw new VotoInvalidoException("Voto encriptado é inválido");
+            }
+            VistaVoto.verificarFormato(ByteBuffer.wrap(votoEncriptado), 0, votoEncriptado.length);
+
+            if (token == null || !validadorTokens.validarToken(token)) {
+                throw new TokenInvalidoException("Token inválido ou já utilizado");
+            }
+
+            if (diario != null) {
+                long posicao;
+                try {
+                    posicao = diario.anexar(votoEncriptado, token);
+                } catch (IOException | RuntimeException e) {
+                    // Nada ficou escrito: o eleitor pode voltar a tentar com o mesmo token.
+                    if (!validadorTokens.devolverToken(token)) {
+                        e.addSuppressed(new TokenInvalidoException("Token gasto sem voto registado: " + token));
+                    }
+                    throw e;
+                }
+                // Já anexado, o voto pode ser recuperado do segmento num reinício,
+                // por isso o token fica gasto mesmo que a sincronização falhe.
+                diario.aguardarDurabilidade(posicao);
+            } else {
+                votos.anexar(new Voto(votoEncriptado, token));
+            }
+            if (primeiroVotoNanos.get() == 0) {
+                primeiroVotoNanos.compareAndSet(0, System.nanoTime());
+            }
+        } finally {
+            estado.decrementAndGet();
         }
-
-        votos.add(new Voto(votoEncriptado, token));
     }
 
     public List<byte[]> getVotosEncriptados() {
         List<byte[]> votosEncriptados = new ArrayList<>();
-        for (Voto voto : votos) {
-            votosEncriptados.add(voto.getVotoEncriptado());
+        Iterator<ByteBuffer> iterador = iteradorVotos();
+        while (iterador.hasNext()) {
+            ByteBuffer voto = iterador.next();
+            byte[] copia = new byte[voto.remaining()];
+            voto.get(copia);
+            votosEncriptados.add(copia);
         }
         return votosEncriptados;
     }
 
+    public Iterator<ByteBuffer> iteradorVotos() {
+        if (diario != null) {
+            return diario.votos();
+        }
+        return mapear(votos.iterador());
+    }
+
+    private static Iterator<ByteBuffer> mapear(Iterator<Voto> iterador) {
+        return new Iterator<ByteBuffer>() {
+            @Override
+            public boolean hasNext() {
+                return iterador.hasNext();
+            }
+
+            @Override
+            public ByteBuffer next() {
+                return ByteBuffer.wrap(iterador.next().getVotoEncriptado()).asReadOnlyBuffer();
+            }
+        };
+    }
+
+    public FluxoVotos subscrever() {
+        return new FluxoVotos(this, diario != null ? diario.seguirVotos() : mapear(votos.seguir()));
+    }
+
+    public ReadableByteChannel canalExportacao() {
+        return new CanalExportacaoVotos(iteradorVotos());
+    }
+
+    public QuadroVotos getQuadro() {
+        return quadro;
+    }
+
     public void encerrarVotacao() {
-        this.votacaoEncerrada = true;
+        estado.getAndAccumulate(ENCERRADA, (atual, bit) -> atual | bit);
+        for (int tentativas = 0; (estado.get() & EM_CURSO) != 0; tentativas++) {
+            if (tentativas < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        if (encerramentoNanos == 0) {
+            encerramentoNanos = System.nanoTime();
+        }
     }
 
     public boolean isVotacaoEncerrada() {
-        return votacaoEncerrada;
+        return estado.get() < 0;
+    }
+
+    boolean isVotacaoEncerradaSemPendentes() {
+        return estado.get() == ENCERRADA;
     }
 
     public int getTotalVotos() {
-        return votos.size();
+        return (int) (diario != null ? diario.getTotalVotos() : votos.tamanho());
+    }
+
+    public double getVotosPorSegundo() {
+        long inicio = primeiroVotoNanos.get();
+        if (inicio == 0) {
+            return 0;
+        }
+        long fim = isVotacaoEncerrada() && encerramentoNanos != 0 ? encerramentoNanos : System.nanoTime();
+        return getTotalVotos() / Math.max((fim - inicio) / 1e9, 1e-9);
     }
 
     private static class Voto {
@@ -0,0 +1,92 @@
+package benchmark;
+
+import com.sun.management.ThreadMXBean;
+import shared.CryptoUtils;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.SecretKey;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class AESBufferBenchmark {
+    private static final int OPERACOES = 2_000_000;
+
+    private interface Operacao {
+        int executar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : OPERACOES;
+        SecretKey chave = CryptoUtils.generateAESKey();
+        byte[] voto = {(byte) 0xFF, 0x00, 0x01};
+        byte[] cifrado = CryptoUtils.encryptAES(voto, chave);
+
+        ByteBuffer entradaHeap = ByteBuffer.wrap(voto);
+        ByteBuffer cifradoHeap = ByteBuffer.allocate(CryptoUtils.aesOutputSize(voto.length));
+        ByteBuffer claroHeap = ByteBuffer.allocate(voto.length);
+        ByteBuffer entradaDireta = ByteBuffer.allocateDirect(voto.length).put(voto).flip();
+        ByteBuffer cifradoDireto = ByteBuffer.allocateDirect(cifradoHeap.capacity());
+        ByteBuffer claroDireto = ByteBuffer.allocateDirect(voto.length);
+        ByteBuffer cifradoOrigem = ByteBuffer.wrap(cifrado);
+
+        verificar(chave, voto, cifrado);
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.println("Ronda " + (ronda + 1));
+            medir("encrypt byte[]", total, () -> CryptoUtils.encryptAES(voto, chave).length);
+            medir("encrypt heap", total, () ->
+                    CryptoUtils.encryptAES(entradaHeap.rewind(), chave, cifradoHeap.clear()));
+            medir("encrypt direto", total, () ->
+                    CryptoUtils.encryptAES(entradaDireta.rewind(), chave, cifradoDireto.clear()));
+            medir("decrypt byte[]", total, () -> CryptoUtils.decryptAES(cifrado, chave).length);
+            medir("decrypt heap", total, () ->
+                    CryptoUtils.decryptAES(cifradoOrigem.rewind(), chave, claroHeap.clear()));
+            cifradoDireto.clear().put(cifrado).flip();
+            medir("decrypt direto", total, () ->
+                    CryptoUtils.decryptAES(cifradoDireto.rewind(), chave, claroDireto.clear()));
+        }
+    }
+
+    private static void verificar(SecretKey chave, byte[] voto, byte[] cifrado) throws Exception {
+        ByteBuffer saida = ByteBuffer.allocateDirect(CryptoUtils.aesOutputSize(voto.length));
+        ByteBuffer aad = ByteBuffer.wrap("eleicao-teste".getBytes());
+        CryptoUtils.encryptAES(ByteBuffer.wrap(voto), aad.duplicate(), chave, saida);
+        saida.flip();
+        byte[] copia = new byte[saida.remaining()];
+        saida.duplicate().get(copia);
+
+        ByteBuffer claro = ByteBuffer.allocate(voto.length);
+        CryptoUtils.decryptAES(saida, aad.duplicate(), chave, claro);
+        if (!Arrays.equals(voto, claro.array())) {
+            throw new IllegalStateException("Ida e volta com AAD falhou");
+        }
+        try {
+            CryptoUtils.decryptAES(ByteBuffer.wrap(copia), ByteBuffer.wrap("outra".getBytes()), chave,
+                    ByteBuffer.allocate(voto.length));
+            throw new IllegalStateException("AAD adulterado aceite");
+        } catch (AEADBadTagException esperado) {
+            System.out.println("AAD adulterado rejeitado");
+        }
+        ByteBuffer claroArray = ByteBuffer.allocate(voto.length);
+        CryptoUtils.decryptAES(ByteBuffer.wrap(cifrado), chave, claroArray);
+        if (!Arrays.equals(voto, claroArray.array())) {
+            throw new IllegalStateException("Formato divergente entre APIs");
+        }
+    }
+
+    private static void medir(String nome, int total, Operacao operacao) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesInicio = threads.getThreadAllocatedBytes(id);
+        long inicio = System.nanoTime();
+        long soma = 0;
+        for (int i = 0; i < total; i++) {
+            soma += operacao.executar();
+        }
+        long nanos = System.nanoTime() - inicio;
+        long bytes = threads.getThreadAllocatedBytes(id) - bytesInicio;
+        System.out.printf("  %-15s %10.0f ops/s %8.1f B/op (%d)%n",
+                nome, total / (nanos / 1e9), (double) bytes / total, soma);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import ar.ARServer;
+import ar.AutoridadeRegisto;
+import ar.ModoExecucao;
+import eleitor.ARClient;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ARServerCargaBenchmark {
+    private static final int CLIENTES = 64;
+    private static final int REGISTOS_POR_CLIENTE = 10;
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : CLIENTES;
+        int registosPorCliente = args.length > 1 ? Integer.parseInt(args[1]) : REGISTOS_POR_CLIENTE;
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAR = keyGen.generateKeyPair();
+        KeyPair parChavesEleitor = keyGen.generateKeyPair();
+
+        for (ModoExecucao modo : ModoExecucao.values()) {
+            AutoridadeRegisto ar = new AutoridadeRegisto(parChavesAR.getPrivate(), parChavesAR.getPublic());
+            ARServer server = new ARServer(ar, modo, 16, 128);
+            Thread servidor = new Thread(server::start);
+            servidor.setDaemon(true);
+            servidor.start();
+            Thread.sleep(1000);
+
+            long[] latencias = new long[clientes * registosPorCliente];
+            AtomicInteger indice = new AtomicInteger();
+            AtomicInteger falhas = new AtomicInteger();
+            CountDownLatch fim = new CountDownLatch(clientes);
+
+            long inicio = System.nanoTime();
+            for (int c = 0; c < clientes; c++) {
+                final int cliente = c;
+                new Thread(() -> {
+                    for (int i = 0; i < registosPorCliente; i++) {
+                        long t0 = System.nanoTime();
+                        try {
+                            ARClient.enviarCertificadoParaAR(modo + "-" + cliente + "-" + i,
+                                    parChavesEleitor.getPublic());
+                            latencias[indice.getAndIncrement()] = System.nanoTime() - t0;
+                        } catch (Exception e) {
+                            falhas.incrementAndGet();
+                        }
+                    }
+                    fim.countDown();
+                }).start();
+            }
+            fim.await();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            long[] ok = Arrays.copyOf(latencias, indice.get());
+            Arrays.sort(ok);
+            double p99 = ok.length == 0 ? 0 : ok[Math.min(ok.length - 1, (int) (ok.length * 0.99))] / 1e6;
+
+            System.out.printf("%-14s %8.1f registos/s  p99=%7.1f ms  falhas=%d  rejeitadas=%d%n",
+                    server.getModoExecucao(), ok.length / segundos, p99, falhas.get(), server.getLigacoesRejeitadas());
+            server.stop();
+            Thread.sleep(500);
+        }
+    }
+}
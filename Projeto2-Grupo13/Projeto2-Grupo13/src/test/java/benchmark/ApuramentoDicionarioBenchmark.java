@@ -0,0 +1,58 @@
+package benchmark;
+
+import aa.ContadorCandidatos;
+import shared.DefinicaoEleicao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ApuramentoDicionarioBenchmark {
+    private static final int VOTOS = 10000000;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : VOTOS;
+        DefinicaoEleicao definicao = DefinicaoEleicao.carregar();
+        int candidatos = definicao.getTotalCandidatos();
+
+        byte[][] textos = new byte[candidatos][];
+        byte[][] compactos = new byte[candidatos][];
+        for (int i = 0; i < candidatos; i++) {
+            textos[i] = definicao.getCandidato(i).getBytes();
+            compactos[i] = definicao.codificarVoto(i);
+        }
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            long inicio = System.nanoTime();
+            Map<String, Integer> mapa = new HashMap<>();
+            for (int i = 0; i < total; i++) {
+                String voto = new String(textos[i % candidatos]);
+                mapa.put(voto, mapa.getOrDefault(voto, 0) + 1);
+            }
+            imprimir("String + HashMap", total, System.nanoTime() - inicio, mapa);
+
+            inicio = System.nanoTime();
+            ContadorCandidatos livre = new ContadorCandidatos();
+            for (int i = 0; i < total; i++) {
+                byte[] voto = textos[i % candidatos];
+                livre.contar(livre.identificar(voto, 0, voto.length));
+            }
+            imprimir("Texto internado", total, System.nanoTime() - inicio, livre.getContagens());
+
+            inicio = System.nanoTime();
+            ContadorCandidatos dicionario = new ContadorCandidatos(definicao);
+            for (int i = 0; i < total; i++) {
+                byte[] voto = compactos[i % candidatos];
+                dicionario.contar(dicionario.identificar(voto, 0, voto.length));
+            }
+            imprimir("Dicionário (índice)", total, System.nanoTime() - inicio, dicionario.getContagens());
+        }
+
+        byte[] invalido = {(byte) 0xFF, 0x7F, 0x00};
+        System.out.println("Escolha inválida rejeitada: "
+                + (new ContadorCandidatos(definicao).identificar(invalido, 0, invalido.length) < 0));
+    }
+
+    private static void imprimir(String nome, int total, long nanos, Map<String, ? extends Number> resultado) {
+        System.out.printf("  %-20s %7.1f Mvotos/s %s%n", nome, total / (nanos / 1e3), resultado);
+    }
+}
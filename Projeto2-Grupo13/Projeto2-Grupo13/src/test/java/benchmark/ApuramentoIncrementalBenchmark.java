@@ -0,0 +1,76 @@
+package benchmark;
+
+import aa.ApuramentoIncremental;
+import aa.AutoridadeApuramento;
+import aa.ResultadoApuramento;
+import shared.CryptoUtils;
+import shared.PacoteVoto;
+import ue.UrnaEletronica;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class ApuramentoIncrementalBenchmark {
+    private static final int VOTOS = 600;
+    private static final String[] CANDIDATOS = {"CandidatoA", "CandidatoB", "CandidatoC"};
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : VOTOS;
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAA = keyGen.generateKeyPair();
+        AutoridadeApuramento aa = new AutoridadeApuramento(parChavesAA.getPrivate(), parChavesAA.getPublic());
+
+        List<byte[]> votos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            SecretKey chaveAES = CryptoUtils.generateAESKey();
+            byte[] votoEncriptado = CryptoUtils.encryptAES(CANDIDATOS[i % CANDIDATOS.length].getBytes(), chaveAES);
+            byte[] chaveEncriptada = CryptoUtils.encryptRSA(chaveAES.getEncoded(), parChavesAA.getPublic());
+            votos.add(new PacoteVoto(votoEncriptado, chaveEncriptada).toByteArray());
+        }
+        aa.apurar(new UrnaEletronica(token -> true).iteradorVotos());
+
+        UrnaEletronica urnaLote = new UrnaEletronica(token -> true);
+        votar(urnaLote, votos);
+        urnaLote.encerrarVotacao();
+        long inicio = System.nanoTime();
+        ResultadoApuramento lote = aa.apurar(urnaLote.iteradorVotos());
+        double tempoLote = (System.nanoTime() - inicio) / 1e9;
+
+        UrnaEletronica urna = new UrnaEletronica(token -> true);
+        ApuramentoIncremental incremental = aa.iniciarApuramentoIncremental(urna.subscrever());
+        votar(urna, votos);
+        System.out.printf("Processados durante a votação: %d de %d%n", incremental.getVotosProcessados(), total);
+        try {
+            incremental.getResultado();
+            throw new IllegalStateException("Resultados legíveis antes do encerramento");
+        } catch (IllegalStateException e) {
+            System.out.println("Contadores selados antes do encerramento: " + e.getMessage());
+        }
+        urna.encerrarVotacao();
+        inicio = System.nanoTime();
+        ResultadoApuramento resultado = incremental.aguardarResultado(10, TimeUnit.MINUTES);
+        double tempoIncremental = (System.nanoTime() - inicio) / 1e9;
+
+        if (!resultado.getContagens().equals(lote.getContagens())) {
+            throw new IllegalStateException("Resultados diferem: " + resultado.getContagens() + " vs " + lote.getContagens());
+        }
+        System.out.printf("Tempo até resultado após encerramento: lote %.2f s, incremental %.3f s %s%n",
+                tempoLote, tempoIncremental, resultado.getContagens());
+        aa.encerrar();
+    }
+
+    private static void votar(UrnaEletronica urna, List<byte[]> votos) throws Exception {
+        for (byte[] voto : votos) {
+            urna.receberVoto(voto, UUID.randomUUID());
+            Thread.sleep(0, 500000);
+        }
+        Thread.sleep(3000);
+    }
+}
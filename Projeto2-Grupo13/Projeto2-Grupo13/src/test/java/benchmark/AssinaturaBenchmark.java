@@ -0,0 +1,63 @@
+package benchmark;
+
+import ar.AutoridadeRegisto;
+import ar.MotorAssinatura;
+import shared.CertificadoEleitor;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AssinaturaBenchmark {
+    private static final int CERTIFICADOS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : CERTIFICADOS;
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAR = keyGen.generateKeyPair();
+        KeyPair parChavesEleitor = keyGen.generateKeyPair();
+
+        List<byte[]> dados = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            dados.add(new CertificadoEleitor("Eleitor_" + i, parChavesEleitor.getPublic()).getDadosParaAssinatura());
+        }
+
+        long inicio = System.nanoTime();
+        for (byte[] d : dados) {
+            Signature sig = Signature.getInstance("SHA256withRSA");
+            sig.initSign(parChavesAR.getPrivate());
+            sig.update(d);
+            sig.sign();
+        }
+        double sequencial = total / ((System.nanoTime() - inicio) / 1e9);
+
+        try (MotorAssinatura motor = new MotorAssinatura(parChavesAR.getPrivate())) {
+            inicio = System.nanoTime();
+            List<CompletableFuture<byte[]>> futuros = new ArrayList<>(total);
+            for (byte[] d : dados) {
+                futuros.add(motor.assinar(d));
+            }
+            CompletableFuture.allOf(futuros.toArray(new CompletableFuture<?>[0])).join();
+            double paralelo = total / ((System.nanoTime() - inicio) / 1e9);
+
+            System.out.printf("Assinatura sequencial: %8.1f assinaturas/s%n", sequencial);
+            System.out.printf("Motor de assinatura:   %8.1f assinaturas/s (%d threads, lote médio %.1f)%n",
+                    paralelo, Runtime.getRuntime().availableProcessors(), motor.getTamanhoMedioLote());
+        }
+
+        AutoridadeRegisto ar = new AutoridadeRegisto(parChavesAR.getPrivate(), parChavesAR.getPublic());
+        inicio = System.nanoTime();
+        List<CompletableFuture<CertificadoEleitor>> registos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            registos.add(ar.registarEleitorAsync(new CertificadoEleitor("Eleitor_" + i, parChavesEleitor.getPublic())));
+        }
+        CompletableFuture.allOf(registos.toArray(new CompletableFuture<?>[0])).join();
+        System.out.printf("Registo na AR:         %8.1f registos/s%n", total / ((System.nanoTime() - inicio) / 1e9));
+        ar.encerrar();
+    }
+}
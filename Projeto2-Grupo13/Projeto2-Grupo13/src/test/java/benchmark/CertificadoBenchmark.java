@@ -0,0 +1,83 @@
+package benchmark;
+
+import ar.CacheCertificadosVerificados;
+import com.sun.management.ThreadMXBean;
+import shared.CertificadoEleitor;
+import shared.CodecBinario;
+import shared.CryptoUtils;
+import shared.NetworkUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.lang.management.ManagementFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+
+public class CertificadoBenchmark {
+    private static final int ITERACOES = 200_000;
+
+    private interface Operacao {
+        int executar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : ITERACOES;
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAR = keyGen.generateKeyPair();
+        KeyPair parChavesEleitor = keyGen.generateKeyPair();
+
+        CertificadoEleitor porAssinar = new CertificadoEleitor("Eleitor_000001", parChavesEleitor.getPublic());
+        CertificadoEleitor certificado = porAssinar.comAssinatura(
+                CryptoUtils.signSHA256withRSA(porAssinar.getDadosParaAssinatura(), parChavesAR.getPrivate()));
+        byte[] java = NetworkUtils.serializar(certificado);
+        byte[] trama = CodecBinario.codificarTrama(certificado);
+        CacheCertificadosVerificados cache = new CacheCertificadosVerificados(1024, Duration.ofMinutes(5));
+        if (!cache.verificar(certificado, parChavesAR.getPublic())) {
+            throw new IllegalStateException("Assinatura inválida");
+        }
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.println("Ronda " + (ronda + 1));
+            medir("dados para assinatura", total, () -> certificado.getDadosParaAssinatura().length);
+            medir("número de série", total, () -> certificado.getNumeroSerie().length());
+            medir("autenticar (cache)", total, () -> cache.verificar(certificado, parChavesAR.getPublic()) ? 1 : 0);
+            medir("descodificar + autenticar", total, () -> {
+                CertificadoEleitor lido = (CertificadoEleitor) CodecBinario.descodificarTrama(trama, 4, trama.length - 4);
+                return cache.verificar(lido, parChavesAR.getPublic()) ? 1 : 0;
+            });
+            medir("verificar (RSA)", total / 20, () -> certificado.verificarAssinatura(parChavesAR.getPublic()) ? 1 : 0);
+            medir("descodificar (binário)", total, () -> {
+                CertificadoEleitor lido = (CertificadoEleitor) CodecBinario.descodificarTrama(trama, 4, trama.length - 4);
+                return lido.getIdentificacao().length();
+            });
+            medir("desserializar (Java)", total / 10, () -> {
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(java))) {
+                    return ((CertificadoEleitor) ois.readObject()).getIdentificacao().length();
+                }
+            });
+            medir("descodificar + chave", total, () -> {
+                CertificadoEleitor lido = (CertificadoEleitor) CodecBinario.descodificarTrama(trama, 4, trama.length - 4);
+                return lido.getChavePublica().getEncoded().length;
+            });
+        }
+    }
+
+    private static void medir(String nome, int total, Operacao operacao) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesInicio = threads.getThreadAllocatedBytes(id);
+        long inicio = System.nanoTime();
+        long soma = 0;
+        for (int i = 0; i < total; i++) {
+            soma += operacao.executar();
+        }
+        long nanos = System.nanoTime() - inicio;
+        long bytes = threads.getThreadAllocatedBytes(id) - bytesInicio;
+        if (soma == 0) {
+            throw new IllegalStateException(nome + ": resultado vazio");
+        }
+        System.out.printf("  %-24s %10.0f ops/s %8.0f B/op%n", nome, total / (nanos / 1e9), (double) bytes / total);
+    }
+}
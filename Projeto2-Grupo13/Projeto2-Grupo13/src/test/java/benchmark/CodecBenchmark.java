@@ -0,0 +1,76 @@
+package benchmark;
+
+import shared.CertificadoEleitor;
+import shared.CodecBinario;
+import shared.NetworkUtils;
+import shared.PacoteVoto;
+import shared.PedidoRegisto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CodecBenchmark {
+    private static final int ITERACOES = 20000;
+
+    public static void main(String[] args) throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChaves = keyGen.generateKeyPair();
+
+        CertificadoEleitor certificado = new CertificadoEleitor("Eleitor_000001", parChaves.getPublic())
+                .comAssinatura(new byte[256]);
+
+        List<CertificadoEleitor> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lote.add(new CertificadoEleitor(String.format("Eleitor_%06d", i), parChaves.getPublic())
+                    .comAssinatura(new byte[256]));
+        }
+        PedidoRegisto pedido = new PedidoRegisto(1L, lote);
+        PacoteVoto pacote = new PacoteVoto(new byte[12 + 10 + 16], new byte[256]);
+
+        comparar("CertificadoEleitor", certificado, ITERACOES);
+        comparar("PedidoRegisto(100)", pedido, ITERACOES / 100);
+        comparar("PacoteVoto", pacote, ITERACOES);
+    }
+
+    private static void comparar(String nome, Object mensagem, int iteracoes) throws Exception {
+        byte[] java = NetworkUtils.serializar(mensagem);
+        byte[] binario = CodecBinario.codificarTrama(mensagem);
+
+        for (int i = 0; i < iteracoes; i++) {
+            idaVoltaJava(mensagem);
+            idaVoltaBinario(mensagem);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteracoes; i++) {
+            idaVoltaJava(mensagem);
+        }
+        double javaPorSegundo = iteracoes / ((System.nanoTime() - inicio) / 1e9);
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < iteracoes; i++) {
+            idaVoltaBinario(mensagem);
+        }
+        double binarioPorSegundo = iteracoes / ((System.nanoTime() - inicio) / 1e9);
+
+        System.out.printf("%-20s java: %6d bytes %10.0f msg/s | binário: %6d bytes %10.0f msg/s%n",
+                nome, java.length, javaPorSegundo, binario.length, binarioPorSegundo);
+    }
+
+    private static Object idaVoltaJava(Object mensagem) throws Exception {
+        byte[] dados = NetworkUtils.serializar(mensagem);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(dados))) {
+            return ois.readObject();
+        }
+    }
+
+    private static Object idaVoltaBinario(Object mensagem) throws Exception {
+        byte[] trama = CodecBinario.codificarTrama(mensagem);
+        return CodecBinario.descodificarTrama(trama, 4, trama.length - 4);
+    }
+}
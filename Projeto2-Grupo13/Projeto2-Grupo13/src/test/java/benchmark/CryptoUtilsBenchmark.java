@@ -0,0 +1,114 @@
+package benchmark;
+
+import shared.CryptoUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+public class CryptoUtilsBenchmark {
+    private static final long JANELA_NS = 2_000_000_000L;
+
+    private interface Operacao {
+        Object executar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rondas = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        KeyPairGenerator gerador = KeyPairGenerator.getInstance("RSA");
+        gerador.initialize(2048);
+        KeyPair par = gerador.generateKeyPair();
+        SecretKey chave = CryptoUtils.generateAESKey();
+        byte[] voto = "CandidatoA".getBytes();
+        byte[] cifradoAES = CryptoUtils.encryptAES(voto, chave);
+        byte[] cifradoRSA = CryptoUtils.encryptRSA(chave.getEncoded(), par.getPublic());
+
+        if (!Arrays.equals(voto, antesDecryptAES(CryptoUtils.encryptAES(voto, chave), chave))
+                || !Arrays.equals(voto, CryptoUtils.decryptAES(antesEncryptAES(voto, chave), chave))) {
+            throw new IllegalStateException("Formato AES-GCM divergente");
+        }
+
+        for (int ronda = 0; ronda < rondas; ronda++) {
+            System.out.println("Ronda " + (ronda + 1));
+            comparar("generateAESKey", CryptoUtilsBenchmark::antesGenerateAESKey, CryptoUtils::generateAESKey);
+            comparar("encryptAES", () -> antesEncryptAES(voto, chave), () -> CryptoUtils.encryptAES(voto, chave));
+            comparar("decryptAES", () -> antesDecryptAES(cifradoAES, chave), () -> CryptoUtils.decryptAES(cifradoAES, chave));
+            comparar("encryptRSA", () -> antesEncryptRSA(chave.getEncoded(), par.getPublic()),
+                    () -> CryptoUtils.encryptRSA(chave.getEncoded(), par.getPublic()));
+            comparar("decryptRSA", () -> antesDecryptRSA(cifradoRSA, par.getPrivate()),
+                    () -> CryptoUtils.decryptRSA(cifradoRSA, par.getPrivate()));
+        }
+    }
+
+    private static void comparar(String nome, Operacao antes, Operacao depois) throws Exception {
+        double opsAntes = medir(antes);
+        double opsDepois = medir(depois);
+        System.out.printf("  %-15s antes %10.0f ops/s  depois %10.0f ops/s  (x%.2f)%n",
+                nome, opsAntes, opsDepois, opsDepois / opsAntes);
+    }
+
+    private static double medir(Operacao operacao) throws Exception {
+        long ops = 0;
+        long inicio = System.nanoTime();
+        long decorrido;
+        Object sumidouro = null;
+        do {
+            for (int i = 0; i < 64; i++) {
+                sumidouro = operacao.executar();
+            }
+            ops += 64;
+            decorrido = System.nanoTime() - inicio;
+        } while (decorrido < JANELA_NS);
+        if (sumidouro == null) {
+            throw new IllegalStateException();
+        }
+        return ops / (decorrido / 1e9);
+    }
+
+    // Implementação anterior de CryptoUtils, mantida aqui apenas como referência.
+
+    private static SecretKey antesGenerateAESKey() throws Exception {
+        KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+        keyGen.init(256);
+        return keyGen.generateKey();
+    }
+
+    private static byte[] antesEncryptAES(byte[] data, SecretKey key) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] encrypted = cipher.doFinal(data);
+        byte[] result = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, result, 0, iv.length);
+        System.arraycopy(encrypted, 0, result, iv.length, encrypted.length);
+        return result;
+    }
+
+    private static byte[] antesDecryptAES(byte[] encryptedData, SecretKey key) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        byte[] iv = Arrays.copyOfRange(encryptedData, 0, 12);
+        byte[] encrypted = Arrays.copyOfRange(encryptedData, 12, encryptedData.length);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        return cipher.doFinal(encrypted);
+    }
+
+    private static byte[] antesEncryptRSA(byte[] data, PublicKey publicKey) throws Exception {
+        Cipher cipher = Cipher.getInstance("RSA");
+        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+        return cipher.doFinal(data);
+    }
+
+    private static byte[] antesDecryptRSA(byte[] data, PrivateKey privateKey) throws Exception {
+        Cipher cipher = Cipher.getInstance("RSA");
+        cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        return cipher.doFinal(data);
+    }
+}
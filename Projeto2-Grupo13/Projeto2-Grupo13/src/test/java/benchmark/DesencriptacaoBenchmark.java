@@ -0,0 +1,81 @@
+package benchmark;
+
+import aa.AutoridadeApuramento;
+import aa.ResultadoApuramento;
+import aa.ResultadoDesencriptacao;
+import shared.CryptoUtils;
+import shared.PacoteVoto;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class DesencriptacaoBenchmark {
+    private static final int VOTOS = 1000;
+    private static final String[] CANDIDATOS = {"CandidatoA", "CandidatoB", "CandidatoC"};
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : VOTOS;
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAA = keyGen.generateKeyPair();
+        AutoridadeApuramento aa = new AutoridadeApuramento(parChavesAA.getPrivate(), parChavesAA.getPublic());
+
+        List<byte[]> votos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            SecretKey chaveAES = CryptoUtils.generateAESKey();
+            byte[] votoEncriptado = CryptoUtils.encryptAES(CANDIDATOS[i % CANDIDATOS.length].getBytes(), chaveAES);
+            byte[] chaveEncriptada = CryptoUtils.encryptRSA(chaveAES.getEncoded(), parChavesAA.getPublic());
+            votos.add(new PacoteVoto(votoEncriptado, chaveEncriptada).toByteArray());
+        }
+
+        long inicio = System.nanoTime();
+        List<String> sequencial = aa.desencriptarVotos(votos);
+        double taxaSequencial = total / ((System.nanoTime() - inicio) / 1e9);
+
+        inicio = System.nanoTime();
+        ResultadoDesencriptacao paralelo = aa.desencriptarVotosParalelo(votos);
+        double taxaParalela = total / ((System.nanoTime() - inicio) / 1e9);
+
+        if (!sequencial.equals(paralelo.getVotos()) || !paralelo.isCompleto()) {
+            throw new IllegalStateException("Resultados paralelos diferem do caminho sequencial");
+        }
+        System.out.printf("Sequencial: %8.1f votos/s%n", taxaSequencial);
+        System.out.printf("Paralelo:   %8.1f votos/s (paralelismo %d)%n",
+                taxaParalela, aa.getMotorDesencriptacao().getParalelismo());
+
+        System.gc();
+        inicio = System.nanoTime();
+        Map<String, Integer> duasFases = aa.apurarVotos(aa.desencriptarVotos(votos));
+        long tempoDuasFases = System.nanoTime() - inicio;
+
+        List<ByteBuffer> vistas = new ArrayList<>(total);
+        for (byte[] voto : votos) {
+            vistas.add(ByteBuffer.wrap(voto));
+        }
+        System.gc();
+        inicio = System.nanoTime();
+        ResultadoApuramento fundido = aa.apurar(vistas.iterator());
+        long tempoFundido = System.nanoTime() - inicio;
+
+        for (Map.Entry<String, Integer> entrada : duasFases.entrySet()) {
+            if (fundido.getContagens().get(entrada.getKey()) != entrada.getValue().longValue()) {
+                throw new IllegalStateException("Contagem fundida difere para " + entrada.getKey());
+            }
+        }
+        System.out.printf("Duas fases (lista + mapa): %6.2f s%n", tempoDuasFases / 1e9);
+        System.out.printf("Apuramento fundido:        %6.2f s %s%n", tempoFundido / 1e9, fundido.getContagens());
+
+        votos.set(total / 2, new byte[]{1, 2, 3});
+        ResultadoDesencriptacao comFalha = aa.desencriptarVotosParalelo(votos);
+        System.out.println("Falhas reportadas: " + comFalha.getFalhas());
+        vistas.set(total / 2, ByteBuffer.wrap(votos.get(total / 2)));
+        System.out.println("Falhas no apuramento fundido: " + aa.apurar(vistas.iterator()).getFalhas());
+        aa.encerrar();
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import shared.PacoteVoto;
+import ue.DiarioVotos;
+import ue.UrnaEletronica;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+public class DiarioVotosBenchmark {
+    private static final int THREADS = 32;
+    private static final int VOTOS_POR_THREAD = 2000;
+    private static final long[] JANELAS_MS = {0, 1, 2, 5, 10};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : THREADS;
+        int porThread = args.length > 1 ? Integer.parseInt(args[1]) : VOTOS_POR_THREAD;
+        byte[] voto = new PacoteVoto(new byte[12 + 3 + 16], new byte[256]).toByteArray();
+
+        double semDiario = executar(new UrnaEletronica(token -> true), voto, threads, porThread);
+        System.out.printf("Sem diário:            %10.0f votos/s%n", semDiario);
+
+        for (long janela : JANELAS_MS) {
+            Path diretoria = Files.createTempDirectory("diario-votos");
+            try {
+                try (DiarioVotos diario = new DiarioVotos(diretoria, 64L * 1024 * 1024,
+                        Duration.ofMillis(janela), 256 * 1024)) {
+                    double taxa = executar(new UrnaEletronica(token -> true, diario), voto, threads, porThread);
+                    System.out.printf("Janela de commit %3d ms: %8.0f votos/s%n", janela, taxa);
+                }
+                try (DiarioVotos reaberto = new DiarioVotos(diretoria)) {
+                    if (reaberto.getVotosRecuperados() != threads * porThread) {
+                        throw new IllegalStateException("Recuperados " + reaberto.getVotosRecuperados());
+                    }
+                }
+            } finally {
+                apagar(diretoria);
+            }
+        }
+    }
+
+    private static double executar(UrnaEletronica urna, byte[] voto, int threads, int porThread) throws Exception {
+        CountDownLatch partida = new CountDownLatch(1);
+        List<Thread> produtores = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread produtor = new Thread(() -> {
+                try {
+                    partida.await();
+                    for (int i = 0; i < porThread; i++) {
+                        urna.receberVoto(voto, UUID.randomUUID());
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            produtor.start();
+            produtores.add(produtor);
+        }
+        partida.countDown();
+        for (Thread produtor : produtores) {
+            produtor.join();
+        }
+        urna.encerrarVotacao();
+        return urna.getVotosPorSegundo();
+    }
+
+    private static void apagar(Path diretoria) throws IOException {
+        try (Stream<Path> ficheiros = Files.walk(diretoria)) {
+            ficheiros.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import ue.DiarioVotos;
+import ue.UrnaEletronica;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class ExportacaoVotosBenchmark {
+    private static final int VOTOS = 2000000;
+    private static final int TAMANHO_VOTO = 100;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : VOTOS;
+        Path diretoria = Files.createTempDirectory("exportacao-votos");
+        try (DiarioVotos diario = new DiarioVotos(diretoria, 64L * 1024 * 1024, Duration.ofMillis(1), 1024 * 1024)) {
+            UrnaEletronica urna = new UrnaEletronica(token -> true, diario);
+            byte[] voto = new byte[TAMANHO_VOTO];
+            long inicio = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                voto[0] = (byte) i;
+                diario.anexar(voto, new UUID(i, i));
+            }
+            diario.aguardarDurabilidade(diario.anexar(voto, new UUID(-1, -1)));
+            urna.encerrarVotacao();
+            System.out.printf("Escrita de %d votos: %.1f s%n", urna.getTotalVotos(), (System.nanoTime() - inicio) / 1e9);
+            reiniciarPicosHeap();
+
+            inicio = System.nanoTime();
+            long contados = 0;
+            long soma = 0;
+            Iterator<ByteBuffer> iterador = urna.iteradorVotos();
+            while (iterador.hasNext()) {
+                ByteBuffer v = iterador.next();
+                soma += v.get(v.position());
+                contados++;
+            }
+            System.out.printf("Iterador:  %d votos em %.2f s, pico de heap %.1f MiB (soma %d)%n",
+                    contados, (System.nanoTime() - inicio) / 1e9, picoHeap() / 1048576.0, soma);
+            reiniciarPicosHeap();
+
+            inicio = System.nanoTime();
+            long bytes = 0;
+            ByteBuffer tampao = ByteBuffer.allocate(64 * 1024);
+            try (ReadableByteChannel canal = urna.canalExportacao()) {
+                int n;
+                while ((n = canal.read(tampao)) >= 0) {
+                    bytes += n;
+                    tampao.clear();
+                }
+            }
+            System.out.printf("Canal:     %.1f MiB em %.2f s, pico de heap %.1f MiB (máx. %d MiB)%n",
+                    bytes / 1048576.0, (System.nanoTime() - inicio) / 1e9, picoHeap() / 1048576.0,
+                    Runtime.getRuntime().maxMemory() / 1048576);
+        } finally {
+            try (Stream<Path> ficheiros = Files.walk(diretoria)) {
+                ficheiros.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            } catch (IOException e) {
+                System.err.println("Erro ao limpar " + diretoria + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void reiniciarPicosHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    private static long picoHeap() {
+        long pico = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pico += pool.getPeakUsage().getUsed();
+            }
+        }
+        return pico;
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import com.sun.management.ThreadMXBean;
+import shared.PacoteVoto;
+import shared.VistaVoto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class FormatoVotoBenchmark {
+    private static final int ITERACOES = 500_000;
+
+    private interface Operacao {
+        int executar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : ITERACOES;
+        byte[] votoEncriptado = new byte[12 + 3 + 16];
+        byte[] chave = new byte[256];
+        ThreadLocalRandom.current().nextBytes(votoEncriptado);
+        ThreadLocalRandom.current().nextBytes(chave);
+        PacoteVoto pacote = new PacoteVoto(votoEncriptado, chave);
+
+        byte[] serializado = serializar(pacote);
+        byte[] binario = pacote.toByteArray();
+        ByteBuffer direto = ByteBuffer.allocateDirect(binario.length).put(binario).flip();
+        VistaVoto vista = new VistaVoto();
+        System.out.printf("Tamanho: serialização Java %d B, binário %d B%n", serializado.length, binario.length);
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.println("Ronda " + (ronda + 1));
+            medir("codificar (Java)", total, () -> serializar(pacote).length);
+            medir("codificar (binário)", total, () -> pacote.toByteArray().length);
+            medir("ler+verificar (Java)", total, () -> {
+                PacoteVoto lido = (PacoteVoto) new ObjectInputStream(new ByteArrayInputStream(serializado)).readObject();
+                return lido.verificarIntegridade() ? lido.getChaveEncriptada().length : 0;
+            });
+            medir("ler+verificar (vista)", total, () ->
+                    vista.envolver(ByteBuffer.wrap(binario)).verificarIntegridade() ? vista.getTamanhoChave() : 0);
+            medir("ler+verificar (direto)", total, () ->
+                    vista.envolver(direto.duplicate()).verificarIntegridade() ? vista.getTamanhoChave() : 0);
+        }
+    }
+
+    private static byte[] serializar(PacoteVoto pacote) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(pacote);
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    private static void medir(String nome, int total, Operacao operacao) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesInicio = threads.getThreadAllocatedBytes(id);
+        long inicio = System.nanoTime();
+        long soma = 0;
+        for (int i = 0; i < total; i++) {
+            soma += operacao.executar();
+        }
+        long nanos = System.nanoTime() - inicio;
+        long bytes = threads.getThreadAllocatedBytes(id) - bytesInicio;
+        if (soma == 0) {
+            throw new IllegalStateException("Integridade não verificada");
+        }
+        System.out.printf("  %-24s %10.0f ops/s %8.0f B/op%n", nome, total / (nanos / 1e9), (double) bytes / total);
+    }
+}
@@ -0,0 +1,137 @@
+package benchmark;
+
+import aa.MotorDesencriptacao;
+import shared.ArvoreMerkle;
+import shared.PacoteVoto;
+import shared.RaizAssinada;
+import shared.ReciboVoto;
+import shared.SuiteCifra;
+import ue.DiarioVotos;
+import ue.UrnaEletronica;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class QuadroVotosBenchmark {
+    private static final int VOTOS = 200_000;
+    private static final int RECIBOS = 10_000;
+    // Cada registo no diário espera pela janela de commit; um só produtor não agrupa.
+    private static final int VOTOS_DIARIO = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : VOTOS;
+        KeyPair parChavesUE = SuiteCifra.RSA.gerarParChaves();
+        List<byte[]> votos = gerarVotos(total);
+        System.out.printf("%d votos de %d B%n", total, votos.get(0).length);
+
+        try (MotorDesencriptacao motor = new MotorDesencriptacao(parChavesUE.getPrivate(),
+                Runtime.getRuntime().availableProcessors(), SuiteCifra.RSA)) {
+            for (int ronda = 0; ronda < 3; ronda++) {
+                System.out.println("Ronda " + (ronda + 1));
+                receber("Urna sem quadro", new UrnaEletronica(token -> true), votos);
+                UrnaEletronica urna = new UrnaEletronica(token -> true, null, parChavesUE.getPrivate());
+                receber("Urna com quadro", urna, votos);
+                verificar(urna, votos, parChavesUE, motor);
+            }
+
+            Path diretoria = Files.createTempDirectory("quadro-votos");
+            List<byte[]> votosDiario = votos.subList(0, Math.min(votos.size(), VOTOS_DIARIO));
+            try (DiarioVotos diario = new DiarioVotos(diretoria)) {
+                UrnaEletronica urna = new UrnaEletronica(token -> true, diario, parChavesUE.getPrivate());
+                receber("Urna com quadro (diário)", urna, votosDiario);
+                verificar(urna, votosDiario, parChavesUE, motor);
+            }
+        }
+    }
+
+    private static List<byte[]> gerarVotos(int total) throws Exception {
+        List<byte[]> votos = new ArrayList<>(total);
+        byte[] votoEncriptado = new byte[12 + 3 + 16];
+        for (int i = 0; i < total; i++) {
+            byte[] chave = new byte[256];
+            ThreadLocalRandom.current().nextBytes(chave);
+            votos.add(new PacoteVoto(votoEncriptado, chave).toByteArray());
+        }
+        return votos;
+    }
+
+    private static void receber(String nome, UrnaEletronica urna, List<byte[]> votos) throws Exception {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < votos.size(); i++) {
+            urna.receberVoto(votos.get(i), new UUID(i + 1, i));
+        }
+        urna.encerrarVotacao();
+        long nanos = System.nanoTime() - inicio;
+        System.out.printf("  %-28s %10.0f votos/s%n", nome, votos.size() / (nanos / 1e9));
+    }
+
+    private static void verificar(UrnaEletronica urna, List<byte[]> votos, KeyPair parChavesUE,
+                                  MotorDesencriptacao motor) throws Exception {
+        long inicio = System.nanoTime();
+        RaizAssinada raiz = urna.getQuadro().aguardarRaiz(60, TimeUnit.SECONDS);
+        System.out.printf("  %-28s %10.1f ms após encerrar%n", "selar quadro", (System.nanoTime() - inicio) / 1e6);
+        if (raiz.getTamanho() != votos.size() || !raiz.verificarAssinatura(parChavesUE.getPublic())) {
+            throw new IllegalStateException("Raiz inválida: " + raiz);
+        }
+
+        inicio = System.nanoTime();
+        List<byte[]> folhas = new ArrayList<>(votos.size());
+        for (byte[] voto : votos) {
+            folhas.add(ArvoreMerkle.hashFolha(voto));
+        }
+        byte[] sequencial = ArvoreMerkle.raiz(folhas);
+        System.out.printf("  %-28s %10.1f ms%n", "raiz sequencial", (System.nanoTime() - inicio) / 1e6);
+
+        inicio = System.nanoTime();
+        byte[] paralela = motor.calcularRaizMerkle(urna.iteradorVotos());
+        System.out.printf("  %-28s %10.1f ms (%d threads)%n", "raiz no motor", (System.nanoTime() - inicio) / 1e6,
+                motor.getParalelismo());
+        if (!Arrays.equals(sequencial, raiz.getRaiz()) || !Arrays.equals(paralela, raiz.getRaiz())) {
+            throw new IllegalStateException("Raízes divergentes");
+        }
+
+        int recibos = Math.min(RECIBOS, votos.size());
+        int hashes = 0;
+        long nanosRecibo = 0;
+        long nanosVerificacao = 0;
+        for (int r = 0; r < recibos; r++) {
+            int i = ThreadLocalRandom.current().nextInt(votos.size());
+            long t0 = System.nanoTime();
+            ReciboVoto recibo = urna.getQuadro().obterRecibo(votos.get(i));
+            long t1 = System.nanoTime();
+            if (recibo == null || recibo.getIndice() != i || !recibo.verificar(votos.get(i), raiz, parChavesUE.getPublic())) {
+                throw new IllegalStateException("Recibo inválido para o voto " + i);
+            }
+            nanosRecibo += t1 - t0;
+            nanosVerificacao += System.nanoTime() - t1;
+            hashes += recibo.getCaminho().size();
+        }
+        System.out.printf("  %-28s %10.1f µs, %.1f hashes (%d B)%n", "emitir recibo",
+                nanosRecibo / 1e3 / recibos, (double) hashes / recibos, hashes / recibos * ArvoreMerkle.TAMANHO_HASH);
+        System.out.printf("  %-28s %10.1f µs (inclui assinatura)%n", "verificar recibo",
+                nanosVerificacao / 1e3 / recibos);
+
+        byte[] adulterado = votos.get(0).clone();
+        adulterado[adulterado.length - 1] ^= 1;
+        if (urna.getQuadro().obterRecibo(adulterado) != null) {
+            throw new IllegalStateException("Voto adulterado encontrado no quadro");
+        }
+        ReciboVoto recibo = urna.getQuadro().obterRecibo(votos.get(0));
+        if (recibo.verificar(adulterado, raiz, parChavesUE.getPublic())) {
+            throw new IllegalStateException("Recibo aceitou voto adulterado");
+        }
+        Iterator<ByteBuffer> semUltimo = votos.subList(0, votos.size() - 1).stream().map(ByteBuffer::wrap).iterator();
+        if (Arrays.equals(motor.calcularRaizMerkle(semUltimo), raiz.getRaiz())) {
+            throw new IllegalStateException("Raiz não detetou voto removido");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import ar.ARServer;
+import ar.AutoridadeRegisto;
+import eleitor.ARClient;
+import shared.CertificadoEleitor;
+import shared.NetworkUtils;
+import shared.SSLUtils;
+
+import javax.net.ssl.SSLSocket;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+
+public class RegistoSSLBenchmark {
+    private static final int REGISTOS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int registos = args.length > 0 ? Integer.parseInt(args[0]) : REGISTOS;
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAR = keyGen.generateKeyPair();
+        KeyPair parChavesEleitor = keyGen.generateKeyPair();
+
+        ARServer server = new ARServer(new AutoridadeRegisto(parChavesAR.getPrivate(), parChavesAR.getPublic()));
+        Thread servidor = new Thread(server::start);
+        servidor.setDaemon(true);
+        servidor.start();
+        Thread.sleep(1000);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < registos; i++) {
+            registarComContextoNovo("antes-" + i, parChavesEleitor);
+        }
+        double antes = registos / ((System.nanoTime() - inicio) / 1e9);
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < registos; i++) {
+            ARClient.enviarCertificadoParaAR("depois-" + i, parChavesEleitor.getPublic());
+        }
+        double depois = registos / ((System.nanoTime() - inicio) / 1e9);
+
+        System.out.printf("Contexto SSL por pedido: %.1f registos/s%n", antes);
+        System.out.printf("Contexto SSL partilhado: %.1f registos/s%n", depois);
+        server.stop();
+    }
+
+    private static void registarComContextoNovo(String identificacao, KeyPair parChaves) throws Exception {
+        try (SSLSocket socket = (SSLSocket) SSLUtils.criarContextoSSL()
+                .getSocketFactory().createSocket("localhost", 9090)) {
+            NetworkUtils.sendObject(socket, new CertificadoEleitor(identificacao, parChaves.getPublic()));
+            NetworkUtils.receiveObject(socket);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import ar.AutoridadeRegisto;
+import eleitor.Eleitor;
+import shared.CertificadoEleitor;
+import shared.ReservaChaves;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Quiosque de recenseamento: um eleitor chega a cada intervalo, obtém o par de chaves
+// e regista-se na AR. Mede o tempo que o eleitor espera, com e sem reserva.
+public class ReservaChavesBenchmark {
+    private static final int ELEITORES = 40;
+    private static final long INTERVALO_MS = 250;
+    private static final int CAPACIDADE = 8;
+
+    private interface Recenseamento {
+        PublicKey obterChave(String identificacao) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int eleitores = args.length > 0 ? Integer.parseInt(args[0]) : ELEITORES;
+        long intervalo = args.length > 1 ? Long.parseLong(args[1]) : INTERVALO_MS;
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair parChavesAR = keyGen.generateKeyPair();
+        AutoridadeRegisto ar = new AutoridadeRegisto(parChavesAR.getPrivate(), parChavesAR.getPublic());
+
+        for (ReservaChaves.Algoritmo algoritmo : ReservaChaves.Algoritmo.values()) {
+            executar(algoritmo + " sem reserva", ar, eleitores, intervalo, id -> algoritmo.gerar().getPublic());
+
+            try (ReservaChaves reserva = new ReservaChaves(algoritmo, CAPACIDADE)) {
+                reserva.aguardarCheia(60, TimeUnit.SECONDS);
+                executar(algoritmo + " com reserva", ar, eleitores, intervalo,
+                        id -> new Eleitor(id, reserva).getChavePublica());
+                System.out.printf("  entregues %d, faltas %d%n", reserva.getEntregues(), reserva.getFaltas());
+            }
+        }
+    }
+
+    private static void executar(String nome, AutoridadeRegisto ar, int eleitores, long intervalo,
+                                 Recenseamento recenseamento) throws Exception {
+        long[] esperas = new long[eleitores];
+        long chegada = System.nanoTime();
+        for (int i = 0; i < eleitores; i++) {
+            long agora = System.nanoTime();
+            if (agora < chegada) {
+                TimeUnit.NANOSECONDS.sleep(chegada - agora);
+            }
+            String id = nome.replace(' ', '_') + "_" + i;
+            ar.registarEleitor(new CertificadoEleitor(id, recenseamento.obterChave(id)));
+            esperas[i] = System.nanoTime() - chegada;
+            chegada += TimeUnit.MILLISECONDS.toNanos(intervalo);
+        }
+        Arrays.sort(esperas);
+        System.out.printf("%-20s p50 %7.2f ms  p90 %7.2f ms  máx %7.2f ms%n", nome,
+                esperas[eleitores / 2] / 1e6, esperas[eleitores * 9 / 10] / 1e6, esperas[eleitores - 1] / 1e6);
+    }
+}
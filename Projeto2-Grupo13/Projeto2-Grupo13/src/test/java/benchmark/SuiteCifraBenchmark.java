@@ -0,0 +1,74 @@
+package benchmark;
+
+import shared.CryptoUtils;
+import shared.DefinicaoEleicao;
+import shared.PacoteVoto;
+import shared.SuiteCifra;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.util.Arrays;
+
+public class SuiteCifraBenchmark {
+    private static final long JANELA_NS = 3_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int rondas = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        DefinicaoEleicao definicao = DefinicaoEleicao.carregar();
+        byte[] voto = definicao.codificarVoto(1);
+
+        for (int ronda = 0; ronda < rondas; ronda++) {
+            System.out.println("Ronda " + (ronda + 1));
+            for (SuiteCifra suite : SuiteCifra.values()) {
+                KeyPair parAA = suite.gerarParChaves();
+                byte[] boletim = cifrar(suite, parAA, voto);
+                if (!Arrays.equals(voto, decifrar(suite, parAA, boletim))) {
+                    throw new IllegalStateException("Ida e volta falhou para " + suite);
+                }
+
+                double cifrar = medir(() -> cifrar(suite, parAA, voto).length);
+                double decifrar = medir(() -> decifrar(suite, parAA, boletim).length);
+                PacoteVoto pacote = PacoteVoto.fromByteArray(boletim);
+                System.out.printf("  %-7s cifrar %8.0f votos/s  decifrar %8.0f votos/s  chave %3d B  boletim %4d B%n",
+                        suite, cifrar, decifrar, pacote.getChaveEncriptada().length, boletim.length);
+            }
+        }
+    }
+
+    private static byte[] cifrar(SuiteCifra suite, KeyPair parAA, byte[] voto) throws Exception {
+        SuiteCifra.Encapsulamento encapsulamento = suite.encapsular(parAA.getPublic());
+        byte[] votoEncriptado = new byte[CryptoUtils.aesOutputSize(voto.length)];
+        CryptoUtils.encryptAES(ByteBuffer.wrap(voto), encapsulamento.getChave(), ByteBuffer.wrap(votoEncriptado));
+        return new PacoteVoto(votoEncriptado, encapsulamento.getEncapsulada()).toByteArray();
+    }
+
+    private static byte[] decifrar(SuiteCifra suite, KeyPair parAA, byte[] boletim) throws Exception {
+        PacoteVoto pacote = PacoteVoto.fromByteArray(boletim);
+        if (!pacote.verificarIntegridade()) {
+            throw new IllegalStateException("Integridade comprometida");
+        }
+        SecretKey chave = suite.desencapsular(pacote.getChaveEncriptada(), parAA.getPrivate());
+        return CryptoUtils.decryptAES(pacote.getVotoEncriptado(), chave);
+    }
+
+    private interface Operacao {
+        int executar() throws Exception;
+    }
+
+    private static double medir(Operacao operacao) throws Exception {
+        long ops = 0;
+        long soma = 0;
+        long inicio = System.nanoTime();
+        long decorrido;
+        do {
+            soma += operacao.executar();
+            ops++;
+            decorrido = System.nanoTime() - inicio;
+        } while (decorrido < JANELA_NS);
+        if (soma == 0) {
+            throw new IllegalStateException();
+        }
+        return ops / (decorrido / 1e9);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import sv.ArmazemTokens;
+import sv.ArmazemTokensConcorrente;
+import sv.TabelaTokensOffHeap;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+public class TokenStoreBenchmark {
+    private static final int TOKENS = 1000000;
+    private static final long VALIDADE_MS = 15 * 60 * 1000;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : TOKENS;
+        UUID[] tokens = new UUID[total];
+        for (int i = 0; i < total; i++) {
+            tokens[i] = UUID.randomUUID();
+        }
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            System.out.println("Ronda " + (ronda + 1));
+            medirHashSet(tokens);
+            medir("Armazém concorrente", new ArmazemTokensConcorrente(VALIDADE_MS, total), tokens, 0);
+            TabelaTokensOffHeap offHeap = new TabelaTokensOffHeap(VALIDADE_MS, total);
+            medir("Tabela off-heap", offHeap, tokens, offHeap.getBytesReservados());
+        }
+    }
+
+    private static void medirHashSet(UUID[] tokens) {
+        long antes = memoriaUsada();
+        Set<UUID> conjunto = new HashSet<>();
+        long inicio = System.nanoTime();
+        for (UUID token : tokens) {
+            conjunto.add(token);
+        }
+        long insercao = System.nanoTime() - inicio;
+        long heap = memoriaUsada() - antes;
+        inicio = System.nanoTime();
+        for (UUID token : tokens) {
+            conjunto.remove(token);
+        }
+        long consumo = System.nanoTime() - inicio;
+        imprimir("HashSet (referência)", tokens.length, insercao, consumo, heap, 0);
+    }
+
+    private static void medir(String nome, ArmazemTokens armazem, UUID[] tokens, long offHeap) {
+        long antes = memoriaUsada();
+        long inicio = System.nanoTime();
+        for (UUID token : tokens) {
+            armazem.adicionar(token);
+        }
+        long insercao = System.nanoTime() - inicio;
+        long heap = memoriaUsada() - antes;
+        inicio = System.nanoTime();
+        for (UUID token : tokens) {
+            armazem.consumir(token);
+        }
+        long consumo = System.nanoTime() - inicio;
+        if (armazem.getGastos() != tokens.length) {
+            throw new IllegalStateException(nome + ": gastos " + armazem.getGastos());
+        }
+        imprimir(nome, tokens.length, insercao, consumo, heap, offHeap);
+    }
+
+    private static void imprimir(String nome, int total, long insercao, long consumo, long heap, long offHeap) {
+        System.out.printf("  %-22s inserção %6.2f Mops/s  consumo %6.2f Mops/s  heap %7.1f MiB  off-heap %7.1f MiB%n",
+                nome, total / (insercao / 1e3), total / (consumo / 1e3),
+                heap / 1048576.0, offHeap / 1048576.0);
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,111 @@
+package benchmark;
+
+import shared.PacoteVoto;
+import shared.exceptions.VotacaoEncerradaException;
+import sv.EmissorTokensAssinados;
+import sv.MapaTokensGastos;
+import sv.ValidadorTokensAssinados;
+import ue.UrnaEletronica;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+public class UrnaCargaBenchmark {
+    private static final int VOTOS_POR_THREAD = 200000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int porThread = args.length > 1 ? Integer.parseInt(args[1]) : VOTOS_POR_THREAD;
+        int total = threads * porThread;
+        byte[] voto = new PacoteVoto(new byte[12 + 3 + 16], new byte[256]).toByteArray();
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            UrnaEletronica urna = new UrnaEletronica(token -> true);
+            UUID[] tokens = new UUID[total];
+            for (int i = 0; i < total; i++) {
+                tokens[i] = new UUID(i + 1, i);
+            }
+            executar("Urna (validador trivial)", urna, tokens, voto, threads, porThread);
+
+            SecretKey chave = EmissorTokensAssinados.gerarChave();
+            EmissorTokensAssinados emissor = new EmissorTokensAssinados(chave, Duration.ofMinutes(15), 0, total);
+            for (int i = 0; i < total; i++) {
+                tokens[i] = emissor.emitirToken();
+            }
+            urna = new UrnaEletronica(new ValidadorTokensAssinados(chave, new MapaTokensGastos(total)));
+            executar("Urna (tokens assinados)", urna, tokens, voto, threads, porThread);
+        }
+
+        encerrarDuranteCarga(voto, threads, porThread);
+    }
+
+    private static void executar(String nome, UrnaEletronica urna, UUID[] tokens, byte[] voto,
+                                 int threads, int porThread) throws Exception {
+        CountDownLatch partida = new CountDownLatch(1);
+        List<Thread> produtores = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * porThread;
+            Thread produtor = new Thread(() -> {
+                try {
+                    partida.await();
+                    for (int i = 0; i < porThread; i++) {
+                        urna.receberVoto(voto, tokens[base + i]);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            produtor.start();
+            produtores.add(produtor);
+        }
+        partida.countDown();
+        for (Thread produtor : produtores) {
+            produtor.join();
+        }
+        urna.encerrarVotacao();
+        if (urna.getTotalVotos() != tokens.length || urna.getVotosEncriptados().size() != tokens.length) {
+            throw new IllegalStateException(nome + ": votos perdidos " + urna.getTotalVotos());
+        }
+        System.out.printf("%-26s %10.0f votos/s (%d threads)%n", nome, urna.getVotosPorSegundo(), threads);
+    }
+
+    private static void encerrarDuranteCarga(byte[] voto, int threads, int porThread) throws Exception {
+        UrnaEletronica urna = new UrnaEletronica(token -> true);
+        LongAdder aceites = new LongAdder();
+        LongAdder recusados = new LongAdder();
+        List<Thread> produtores = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread produtor = new Thread(() -> {
+                for (int i = 0; i < porThread; i++) {
+                    try {
+                        urna.receberVoto(voto, UUID.randomUUID());
+                        aceites.increment();
+                    } catch (VotacaoEncerradaException e) {
+                        recusados.increment();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            produtor.start();
+            produtores.add(produtor);
+        }
+        Thread.sleep(50);
+        urna.encerrarVotacao();
+        int registados = urna.getTotalVotos();
+        for (Thread produtor : produtores) {
+            produtor.join();
+        }
+        if (registados != aceites.sum() || urna.getTotalVotos() != registados) {
+            throw new IllegalStateException("Barreira de encerramento violada: registados " + registados
+                    + ", aceites " + aceites.sum() + ", após join " + urna.getTotalVotos());
+        }
+        System.out.printf("Encerramento sob carga: %d aceites, %d recusados, nenhum perdido%n",
+                aceites.sum(), recusados.sum());
+    }
+}
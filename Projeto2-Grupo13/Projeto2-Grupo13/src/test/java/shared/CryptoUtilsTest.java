@@ -0,0 +1,111 @@
+package shared;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidKeyException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.XECPrivateKeySpec;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CryptoUtilsTest {
+    // RFC 7748, secção 6.1.
+    private static final String PRIVADA_ALICE = "77076d0a7318a57d3c16c17251b26645df4c2f87ebc0992ab177fba51db92c2a";
+    private static final String PUBLICA_ALICE = "8520f0098930a754748b7ddcb43ef75a0dbf3a0d26381af4eba4a98eaa9b4e6a";
+    private static final String PRIVADA_BOB = "5dab087e624a8a4b79e17f8b83800ee66f3bb1292618b6fd1c2f8b27ff88e0eb";
+    private static final String PUBLICA_BOB = "de9edb7d7b7dc1b4d35b61c2ece435373f8343c85b78674dadfc7e146f882b4f";
+    private static final String PARTILHADO = "4a5d9d5ba4ce2de1728e3bf480350f25e07e21c947d19e3376f09b3c1e161742";
+
+    @Test
+    void x25519DerivaChavesPublicasDoRfc7748() throws Exception {
+        byte[] base = new byte[32];
+        base[0] = 9;
+        PublicKey pontoBase = CryptoUtils.decodeX25519PublicKey(base);
+
+        assertArrayEquals(hex(PUBLICA_ALICE), CryptoUtils.x25519(privada(PRIVADA_ALICE), pontoBase));
+        assertArrayEquals(hex(PUBLICA_BOB), CryptoUtils.x25519(privada(PRIVADA_BOB), pontoBase));
+    }
+
+    @Test
+    void x25519AcordaSegredoDoRfc7748() throws Exception {
+        PublicKey alice = CryptoUtils.decodeX25519PublicKey(hex(PUBLICA_ALICE));
+        PublicKey bob = CryptoUtils.decodeX25519PublicKey(hex(PUBLICA_BOB));
+
+        assertArrayEquals(hex(PARTILHADO), CryptoUtils.x25519(privada(PRIVADA_ALICE), bob));
+        assertArrayEquals(hex(PARTILHADO), CryptoUtils.x25519(privada(PRIVADA_BOB), alice));
+    }
+
+    @Test
+    void chavePublicaX25519SobreviveCodificacao() throws Exception {
+        for (String publica : new String[]{PUBLICA_ALICE, PUBLICA_BOB}) {
+            assertArrayEquals(hex(publica), CryptoUtils.encodeX25519PublicKey(CryptoUtils.decodeX25519PublicKey(hex(publica))));
+        }
+        for (int i = 0; i < 32; i++) {
+            PublicKey gerada = CryptoUtils.generateX25519KeyPair().getPublic();
+            byte[] raw = CryptoUtils.encodeX25519PublicKey(gerada);
+            assertEquals(32, raw.length);
+            assertArrayEquals(raw, CryptoUtils.encodeX25519PublicKey(CryptoUtils.decodeX25519PublicKey(raw)));
+        }
+    }
+
+    @Test
+    void descodificacaoIgnoraBitMaisSignificativo() throws Exception {
+        // RFC 7748, secção 5: o bit mais alto do último byte é descartado.
+        byte[] comBit = hex(PUBLICA_BOB);
+        comBit[31] |= (byte) 0x80;
+        assertArrayEquals(hex(PUBLICA_BOB), CryptoUtils.encodeX25519PublicKey(CryptoUtils.decodeX25519PublicKey(comBit)));
+        assertThrows(InvalidKeyException.class, () -> CryptoUtils.decodeX25519PublicKey(new byte[31]));
+    }
+
+    // RFC 5869, apêndice A.
+    @Test
+    void hkdfSha256CasoBasico() throws Exception {
+        assertArrayEquals(hex("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf34007208d5b887185865"),
+                CryptoUtils.hkdfSha256(hex("000102030405060708090a0b0c"), repetir(0x0b, 22),
+                        hex("f0f1f2f3f4f5f6f7f8f9"), 42));
+    }
+
+    @Test
+    void hkdfSha256EntradasLongas() throws Exception {
+        assertArrayEquals(hex("b11e398dc80327a1c8e7f78c596a49344f012eda2d4efad8a050cc4c19afa97c"
+                        + "59045a99cac7827271cb41c65e590e09da3275600c2f09b8367793a9aca3db71"
+                        + "cc30c58179ec3e87c14c01d5c1f3434f1d87"),
+                CryptoUtils.hkdfSha256(sequencia(0x60, 80), sequencia(0x00, 80), sequencia(0xb0, 80), 82));
+    }
+
+    @Test
+    void hkdfSha256SemSaltNemInfo() throws Exception {
+        assertArrayEquals(hex("8da4e775a563c18f715f802a063c5a31b8a11f5c5ee1879ec3454e5f3c738d2d9d201395faa4b61a96c8"),
+                CryptoUtils.hkdfSha256(new byte[0], repetir(0x0b, 22), new byte[0], 42));
+    }
+
+    private static PrivateKey privada(String escalar) throws Exception {
+        return KeyFactory.getInstance("X25519")
+                .generatePrivate(new XECPrivateKeySpec(NamedParameterSpec.X25519, hex(escalar)));
+    }
+
+    private static byte[] hex(String texto) throws Exception {
+        return Hex.decodeHex(texto);
+    }
+
+    private static byte[] repetir(int valor, int tamanho) {
+        byte[] bytes = new byte[tamanho];
+        Arrays.fill(bytes, (byte) valor);
+        return bytes;
+    }
+
+    private static byte[] sequencia(int inicio, int tamanho) {
+        byte[] bytes = new byte[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            bytes[i] = (byte) (inicio + i);
+        }
+        return bytes;
+    }
+}
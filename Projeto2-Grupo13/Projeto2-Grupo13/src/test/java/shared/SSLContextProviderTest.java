@@ -0,0 +1,45 @@
+package shared;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.SSLContext;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SSLContextProviderTest {
+    private static final long INTERVALO_MS = 50;
+
+    @TempDir
+    Path diretoria;
+
+    @Test
+    void keystoreAlteradaProduzNovoContexto() throws Exception {
+        Path keystore = diretoria.resolve("keystore.p12");
+        try (InputStream is = SSLContextProviderTest.class.getClassLoader()
+                .getResourceAsStream(SSLUtils.KEYSTORE_RESOURCE)) {
+            assertNotNull(is, "Keystore de teste em falta");
+            Files.copy(is, keystore);
+        }
+        SSLContextProvider provider = new SSLContextProvider(keystore, INTERVALO_MS);
+
+        SSLContext inicial = provider.getContexto();
+        Thread.sleep(INTERVALO_MS * 2);
+        assertSame(inicial, provider.getContexto());
+
+        FileTime alterada = FileTime.fromMillis(Files.getLastModifiedTime(keystore).toMillis() + 10_000);
+        Files.setLastModifiedTime(keystore, alterada);
+        Thread.sleep(INTERVALO_MS * 2);
+        SSLContext recarregado = provider.getContexto();
+        assertNotSame(inicial, recarregado);
+
+        Thread.sleep(INTERVALO_MS * 2);
+        assertSame(recarregado, provider.getContexto());
+    }
+}
@@ -0,0 +1,84 @@
+package sv;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormatoTokenAssinadoTest {
+    private static final int CAPACIDADE = 1000;
+
+    @Test
+    void macCoincideComHmacSha256DoJdk() throws Exception {
+        // Chaves mais curtas, iguais e mais longas do que o bloco de 64 bytes.
+        for (int tamanho : new int[]{1, 32, 64, 65, 200}) {
+            byte[] bytesChave = new byte[tamanho];
+            ThreadLocalRandom.current().nextBytes(bytesChave);
+            SecretKey chave = new SecretKeySpec(bytesChave, FormatoTokenAssinado.ALGORITMO_MAC);
+            FormatoTokenAssinado formato = new FormatoTokenAssinado(chave);
+            Mac mac = Mac.getInstance(FormatoTokenAssinado.ALGORITMO_MAC);
+            mac.init(chave);
+
+            for (int i = 0; i < 100; i++) {
+                long cabecalho = ThreadLocalRandom.current().nextLong();
+                byte[] esperado = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(cabecalho).array());
+                assertEquals(ByteBuffer.wrap(esperado).getLong(), formato.mac(cabecalho),
+                        "chave de " + tamanho + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void tokenValidoSoEAceiteUmaVez() throws Exception {
+        SecretKey chave = EmissorTokensAssinados.gerarChave();
+        EmissorTokensAssinados emissor = new EmissorTokensAssinados(chave, Duration.ofMinutes(5), 0, CAPACIDADE);
+        ValidadorTokensAssinados validador = new ValidadorTokensAssinados(chave, new MapaTokensGastos(CAPACIDADE));
+        UUID token = emissor.emitirToken();
+
+        assertTrue(validador.validarToken(token));
+        assertFalse(validador.validarToken(token));
+        assertEquals(1, validador.getAceites());
+        assertEquals(1, validador.getReutilizados());
+    }
+
+    @Test
+    void tokenForjadoERejeitado() throws Exception {
+        SecretKey chave = EmissorTokensAssinados.gerarChave();
+        EmissorTokensAssinados emissor = new EmissorTokensAssinados(chave, Duration.ofMinutes(5), 0, CAPACIDADE);
+        EmissorTokensAssinados intruso = new EmissorTokensAssinados(EmissorTokensAssinados.gerarChave(),
+                Duration.ofMinutes(5), 0, CAPACIDADE);
+        ValidadorTokensAssinados validador = new ValidadorTokensAssinados(chave, new MapaTokensGastos(CAPACIDADE));
+        UUID token = emissor.emitirToken();
+
+        assertFalse(validador.validarToken(intruso.emitirToken()));
+        assertFalse(validador.validarToken(new UUID(token.getMostSignificantBits(),
+                token.getLeastSignificantBits() ^ 1)));
+        // Outra sequência ou validade com o MAC original.
+        assertFalse(validador.validarToken(new UUID(token.getMostSignificantBits() + (1L << 32),
+                token.getLeastSignificantBits())));
+        assertFalse(validador.validarToken(new UUID(token.getMostSignificantBits() + 3600,
+                token.getLeastSignificantBits())));
+        assertFalse(validador.validarToken(UUID.randomUUID()));
+        assertEquals(0, validador.getAceites());
+        assertTrue(validador.validarToken(token));
+    }
+
+    @Test
+    void tokenExpiradoERejeitado() throws Exception {
+        SecretKey chave = EmissorTokensAssinados.gerarChave();
+        EmissorTokensAssinados emissor = new EmissorTokensAssinados(chave, Duration.ofSeconds(-10), 0, CAPACIDADE);
+        ValidadorTokensAssinados validador = new ValidadorTokensAssinados(chave, new MapaTokensGastos(CAPACIDADE));
+
+        assertFalse(validador.validarToken(emissor.emitirToken()));
+        assertEquals(1, validador.getExpirados());
+    }
+}
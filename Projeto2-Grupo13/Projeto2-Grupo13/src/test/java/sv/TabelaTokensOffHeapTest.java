@@ -0,0 +1,114 @@
+package sv;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TabelaTokensOffHeapTest {
+    private static final long VALIDADE_MS = 60_000;
+
+    @Test
+    void tokenEmitidoSoPodeSerConsumidoUmaVez() {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(VALIDADE_MS, 16);
+        UUID token = UUID.randomUUID();
+
+        assertTrue(tabela.adicionar(token));
+        assertEquals(1, tabela.getPendentes());
+        assertFalse(tabela.consumir(UUID.randomUUID()));
+        assertTrue(tabela.consumir(token));
+        assertFalse(tabela.consumir(token));
+        assertEquals(0, tabela.getPendentes());
+        assertEquals(1, tabela.getGastos());
+    }
+
+    @Test
+    void tokenExpiradoERejeitado() throws InterruptedException {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(20, 16);
+        UUID token = UUID.randomUUID();
+        tabela.adicionar(token);
+        Thread.sleep(50);
+
+        assertFalse(tabela.consumir(token));
+        assertEquals(1, tabela.getExpirados());
+        assertEquals(0, tabela.getPendentes());
+    }
+
+    @Test
+    void capacidadeMaximaRejeitaNovosTokens() {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(VALIDADE_MS, 4);
+        UUID[] tokens = new UUID[4];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = UUID.randomUUID();
+            assertTrue(tabela.adicionar(tokens[i]));
+        }
+
+        assertFalse(tabela.adicionar(UUID.randomUUID()));
+        assertEquals(1, tabela.getRejeitados());
+        assertTrue(tabela.consumir(tokens[0]));
+        assertTrue(tabela.adicionar(UUID.randomUUID()));
+    }
+
+    @Test
+    void capacidadeMaximaLibertaExpiradosAntesDeRejeitar() throws InterruptedException {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(20, 4);
+        for (int i = 0; i < 4; i++) {
+            tabela.adicionar(UUID.randomUUID());
+        }
+        Thread.sleep(50);
+
+        assertTrue(tabela.adicionar(UUID.randomUUID()));
+        assertEquals(0, tabela.getRejeitados());
+        assertEquals(4, tabela.getExpirados());
+        assertEquals(1, tabela.getPendentes());
+    }
+
+    @Test
+    void tokenRepostoMantemExpiracaoEIgnoraLimite() {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(VALIDADE_MS, 2);
+        UUID token = UUID.randomUUID();
+        tabela.adicionar(token);
+        long expiracao = tabela.gastar(token);
+        tabela.adicionar(UUID.randomUUID());
+        tabela.adicionar(UUID.randomUUID());
+
+        assertTrue(tabela.repor(token, expiracao));
+        assertFalse(tabela.repor(token, expiracao));
+        assertEquals(3, tabela.getPendentes());
+        assertEquals(3, tabela.getEmitidos());
+        assertEquals(0, tabela.getGastos());
+        assertEquals(expiracao, tabela.gastar(token));
+    }
+
+    @Test
+    void tokenRepostoJaExpiradoNaoEAceite() {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(VALIDADE_MS, 16);
+        UUID token = UUID.randomUUID();
+        tabela.adicionar(token);
+        tabela.gastar(token);
+
+        assertTrue(tabela.repor(token, System.currentTimeMillis() - 1));
+        assertFalse(tabela.consumir(token));
+        assertEquals(1, tabela.getExpirados());
+    }
+
+    @Test
+    void entradasRemovidasSaoRecuperadas() {
+        TabelaTokensOffHeap tabela = new TabelaTokensOffHeap(VALIDADE_MS, 16);
+        UUID duradouro = UUID.randomUUID();
+        tabela.adicionar(duradouro);
+
+        for (int i = 0; i < 100_000; i++) {
+            UUID token = UUID.randomUUID();
+            assertTrue(tabela.adicionar(token));
+            assertTrue(tabela.consumir(token));
+        }
+
+        assertEquals(1, tabela.getPendentes());
+        assertTrue(tabela.consumir(duradouro));
+        assertEquals(0, tabela.getRejeitados());
+    }
+}
@@ -0,0 +1,49 @@
+package sv;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+    private static final Duration VALIDADE = Duration.ofMinutes(5);
+    private static final int CAPACIDADE = 2;
+
+    @Test
+    void tokenDevolvidoPodeSerReutilizadoComLimiteAtingido() {
+        verificarDevolucao(new TokenService(VALIDADE, CAPACIDADE));
+        verificarDevolucao(TokenService.offHeap(VALIDADE, CAPACIDADE));
+    }
+
+    @Test
+    void soODevolveOUltimoTokenValidadoNaThread() {
+        TokenService servico = new TokenService(VALIDADE, CAPACIDADE);
+        UUID primeiro = servico.emitirToken();
+        UUID segundo = servico.emitirToken();
+        servico.validarToken(primeiro);
+        servico.validarToken(segundo);
+
+        assertFalse(servico.devolverToken(primeiro));
+        assertFalse(servico.devolverToken(UUID.randomUUID()));
+        assertTrue(servico.devolverToken(segundo));
+        assertFalse(servico.devolverToken(segundo));
+    }
+
+    private static void verificarDevolucao(TokenService servico) {
+        UUID token = servico.emitirToken();
+        assertTrue(servico.validarToken(token));
+        servico.emitirToken();
+        servico.emitirToken();
+
+        assertTrue(servico.devolverToken(token));
+        assertEquals(3, servico.getTokensPendentes());
+        assertEquals(3, servico.getTokensEmitidos());
+        assertEquals(0, servico.getTokensGastos());
+        assertTrue(servico.validarToken(token));
+        assertFalse(servico.validarToken(token));
+    }
+}